@@ -0,0 +1,98 @@
+package com.clinic;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH suite and turns it into a regression gate. Every benchmark runs in its own forked JVM with the settings
+ * from its annotations; scores are average time per operation, so lower is better.
+ *
+ * <pre>
+ * BenchmarkGate [--include regex] [--sizes 1000,100000,1000000] [--quick]
+ *               [--write-baseline file] [--baseline file] [--threshold 1.25]
+ * </pre>
+ *
+ * With {@code --baseline}, the process exits with status 1 when any benchmark is slower than its baseline by more
+ * than the threshold factor. {@code --quick} shortens warmup and measurement for smoke runs; its numbers are not
+ * comparable with a full baseline.
+ */
+public class BenchmarkGate {
+    public static void main(String[] args) throws IOException, RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        String include = BenchmarkGate.class.getPackageName() + "\\..*Benchmark\\..*";
+        Path baseline = null;
+        Path writeBaseline = null;
+        double threshold = 1.25;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--include" -> include = args[++i];
+                case "--sizes" -> options.param("size", args[++i].split(","));
+                case "--quick" -> options.warmupIterations(1).warmupTime(TimeValue.milliseconds(300))
+                        .measurementIterations(2).measurementTime(TimeValue.milliseconds(300));
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--write-baseline" -> writeBaseline = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Map<String, Double> scores = scores(new Runner(options.include(include).build()).run());
+        if (writeBaseline != null) {
+            writeBaseline(scores, writeBaseline);
+        }
+        if (baseline != null && !compareWith(scores, baseline, threshold)) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Double> scores(Collection<RunResult> results) {
+        Map<String, Double> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            StringBuilder key = new StringBuilder(result.getParams().getBenchmark().substring(BenchmarkGate.class.getPackageName().length() + 1));
+            for (String param : result.getParams().getParamsKeys()) {
+                key.append('@').append(result.getParams().getParam(param));
+            }
+            scores.put(key.toString(), result.getPrimaryResult().getScore());
+        }
+        return scores;
+    }
+
+    private static void writeBaseline(Map<String, Double> scores, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("# JMH baseline (average time per operation)\n");
+            for (Map.Entry<String, Double> score : scores.entrySet()) {
+                writer.write(String.format("%s=%.3f%n", score.getKey(), score.getValue()));
+            }
+        }
+    }
+
+    private static boolean compareWith(Map<String, Double> scores, Path file, double threshold) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            baseline.load(reader);
+        }
+        boolean passed = true;
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            String expected = baseline.getProperty(score.getKey());
+            if (expected != null && score.getValue() > Double.parseDouble(expected) * threshold) {
+                System.out.printf("REGRESSION %s: %.3f vs baseline %s%n", score.getKey(), score.getValue(), expected);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+}
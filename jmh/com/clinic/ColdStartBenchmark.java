@@ -0,0 +1,96 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from opening a shard's directory to serving a lookup, for the replayed log and the mapped store. Both rebuild
+ * the slot calendar and indexes; the mapped store does it from the raw records instead of parsing log entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ColdStartBenchmark {
+    private static final int BATCH = 10_000;
+    private static final int DISTINCT_PATIENTS = 10_000;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"LOG", "MAPPED"})
+    public String storage;
+
+    private Path directory;
+    private int firstId;
+    private AppointmentRepository opened;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("cold-start");
+        Patient[] patients = Fixtures.patients(Math.min(size, DISTINCT_PATIENTS));
+        try (AppointmentRepository repository = open()) {
+            for (int from = 0; from < size; from += BATCH) {
+                List<Appointment> batch = new ArrayList<>(BATCH);
+                for (int i = from; i < Math.min(from + BATCH, size); i++) {
+                    batch.add(Fixtures.appointment(patients[i % patients.length], i));
+                }
+                if (from == 0) {
+                    firstId = batch.get(0).getId();
+                }
+                repository.saveAll(batch);
+            }
+        }
+    }
+
+    @Benchmark
+    public Appointment openAndFind() throws IOException {
+        opened = open();
+        return opened.findById(firstId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeOpened() {
+        if (opened != null) {
+            opened.close();
+            opened = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private AppointmentRepository open() throws IOException {
+        return ShardedClinic.Storage.valueOf(storage) == ShardedClinic.Storage.MAPPED
+                ? AppointmentRepository.openMapped(directory, Fixtures.ROSTER)
+                : AppointmentRepository.open(directory, Fixtures.ROSTER);
+    }
+}
@@ -0,0 +1,38 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/** Deterministic patients and appointments shared by the benchmarks. */
+final class Fixtures {
+    static final DermatologistRoster ROSTER = DermatologistRoster.defaultRoster();
+
+    private Fixtures() {}
+
+    static Patient[] patients(int count) {
+        Patient[] patients = new Patient[count];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Patient("NIC" + (100_000_000 + i), "Patient " + i, "patient" + i + "@clinic.lk", "0771234567");
+        }
+        return patients;
+    }
+
+    /** The {@code index}-th distinct slot from 2030-01-01, cycling through doctors and the whole day. */
+    static Appointment appointment(Patient patient, int index) {
+        List<Dermatologist> dermatologists = ROSTER.getDermatologists();
+        int perDay = dermatologists.size() * SlotCalendar.SLOTS_PER_DAY;
+        Dermatologist dermatologist = dermatologists.get(index % dermatologists.size());
+        LocalDate date = LocalDate.of(2030, 1, 1).plusDays(index / perDay);
+        LocalTime time = LocalTime.MIN.plusMinutes((long) SlotCalendar.SLOT_MINUTES * ((index / dermatologists.size()) % SlotCalendar.SLOTS_PER_DAY));
+        return new Appointment(patient, dermatologist, date.toString(), time.toString());
+    }
+
+    static AppointmentRepository repository(Patient[] patients, int size) {
+        AppointmentRepository repository = new AppointmentRepository();
+        for (int i = 0; i < size; i++) {
+            repository.save(appointment(patients[i % patients.length], i));
+        }
+        return repository;
+    }
+}
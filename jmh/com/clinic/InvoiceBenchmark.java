@@ -0,0 +1,86 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Invoice totals: the original {@code double} arithmetic against the precomputed fixed-point tariff table. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceBenchmark {
+    static final int BATCH = 10_000;
+
+    private Invoice[] invoices;
+    private Invoice[] batch;
+
+    @Setup
+    public void createInvoices() {
+        Appointment appointment = Fixtures.appointment(Fixtures.patients(1)[0], 0);
+        TreatmentType[] types = TreatmentType.values();
+        invoices = new Invoice[types.length];
+        for (TreatmentType type : types) {
+            invoices[type.ordinal()] = new Invoice(appointment, type);
+        }
+        batch = new Invoice[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batch[i] = invoices[ThreadLocalRandom.current().nextInt(invoices.length)];
+        }
+    }
+
+    @Benchmark
+    public double legacyCalculateTotal() {
+        return legacyTotal(invoices[ThreadLocalRandom.current().nextInt(invoices.length)].getTreatmentType());
+    }
+
+    @Benchmark
+    public long calculateTotal() {
+        return invoices[ThreadLocalRandom.current().nextInt(invoices.length)].calculateTotal();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double legacyBatchTotal() {
+        double total = 0;
+        for (Invoice invoice : batch) {
+            total += legacyTotal(invoice.getTreatmentType());
+        }
+        return Math.round(total * 100.0) / 100.0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long batchTotal() {
+        long total = 0;
+        for (Invoice invoice : batch) {
+            total += invoice.calculateTotal();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public String invoiceToString() {
+        return invoices[ThreadLocalRandom.current().nextInt(invoices.length)].toString();
+    }
+
+    /** The original {@code Invoice.calculateTotal}, priced from the rupee amounts the treatments used to carry. */
+    private static double legacyTotal(TreatmentType treatmentType) {
+        double total = 500.00 + treatmentType.getPriceCents() / 100.0;
+        double tax = total * 0.025;
+        return Math.round((total + tax) * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Receipt printing: the original {@code String.formatted} text blocks against the pre-rendered templates. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptBenchmark {
+    private final StringBuilder buffer = new StringBuilder(512);
+    private Appointment appointment;
+    private Invoice invoice;
+
+    @Setup
+    public void createReceipts() {
+        appointment = Fixtures.appointment(Fixtures.patients(1)[0], 0);
+        invoice = new Invoice(appointment, TreatmentType.LASER_TREATMENT);
+    }
+
+    @Benchmark
+    public String legacyAppointmentFormatted() {
+        return """
+            🏥🧾 Clinic Appointment Receipt
+            ================================
+            📅 Appointment ID : %d
+            🧑 Patient Name   : %s
+            👩‍⚕️ Dermatologist: %s
+            📆 Date           : %s
+            ⏰ Time            : %s
+            💳 Payment Status  : %s
+            ================================
+            """.formatted(appointment.getId(), appointment.getPatient().getName(), appointment.getDermatologist().getName(),
+                appointment.getDate(), appointment.getTime(), appointment.isPaid() ? "Paid ✅" : "Pending ❌");
+    }
+
+    @Benchmark
+    public StringBuilder appointmentEmoji() {
+        buffer.setLength(0);
+        return ReceiptRenderer.EMOJI.appendTo(buffer, appointment);
+    }
+
+    @Benchmark
+    public StringBuilder appointmentAscii() {
+        buffer.setLength(0);
+        return ReceiptRenderer.ASCII.appendTo(buffer, appointment);
+    }
+
+    @Benchmark
+    public String legacyInvoiceFormatted() {
+        double price = invoice.getTreatmentType().getPriceCents() / 100.0;
+        return """
+            🏥🧾 Clinic Invoice
+            ====================================
+            📅 Appointment ID : %d
+            🧑 Patient Name   : %s
+            💉 Treatment      : %s
+            ------------------------------------
+            💵 Treatment Cost : LKR %.2f
+            🪙 Registration Fee : LKR %.2f
+            💰 Tax (2.5%%)      : LKR %.2f
+            ====================================
+            🧾 Total Amount   : LKR %.2f
+            ====================================
+            """.formatted(appointment.getId(), appointment.getPatient().getName(), invoice.getTreatmentType().name(),
+                price, 500.00, (500.00 + price) * 0.025, invoice.calculateTotal() / 100.0);
+    }
+
+    @Benchmark
+    public StringBuilder invoiceEmoji() {
+        buffer.setLength(0);
+        return ReceiptRenderer.EMOJI.appendTo(buffer, invoice);
+    }
+
+    @Benchmark
+    public StringBuilder invoiceAscii() {
+        buffer.setLength(0);
+        return ReceiptRenderer.ASCII.appendTo(buffer, invoice);
+    }
+}
@@ -0,0 +1,100 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Repository hot paths at 1k, 100k and 1M stored appointments. Name searches only query patients that are stored;
+ * {@link #searchMiss} covers the fuzzy fallback taken when nothing matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryBenchmark {
+    private static final int DISTINCT_PATIENTS = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Patient[] patients;
+    private AppointmentRepository repository;
+    private int firstId;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        patients = Fixtures.patients(Math.min(size, DISTINCT_PATIENTS));
+        repository = Fixtures.repository(patients, size);
+        firstId = repository.findAll().get(0).getId();
+    }
+
+    @Benchmark
+    public Appointment findById() {
+        return repository.findById(firstId + ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public int searchByName() {
+        return repository.search(patients[ThreadLocalRandom.current().nextInt(patients.length)].getName()).size();
+    }
+
+    @Benchmark
+    public int searchById() {
+        return repository.search(String.valueOf(firstId + ThreadLocalRandom.current().nextInt(size))).size();
+    }
+
+    @Benchmark
+    public int searchMiss() {
+        return repository.search("Unknown Visitor").size();
+    }
+
+    /** Appends to a repository refilled to {@code size} before every iteration, so growth stays bounded. */
+    @State(Scope.Benchmark)
+    public static class Saving {
+        AppointmentRepository repository;
+        Patient[] patients;
+        final AtomicInteger next = new AtomicInteger();
+        int size;
+
+        @Setup(Level.Iteration)
+        public void refill(RepositoryBenchmark benchmark) {
+            size = benchmark.size;
+            patients = benchmark.patients;
+            repository = Fixtures.repository(patients, size);
+            next.set(size);
+        }
+
+        Appointment nextAppointment() {
+            int index = next.getAndIncrement();
+            return Fixtures.appointment(patients[index % patients.length], index);
+        }
+    }
+
+    @Benchmark
+    public boolean save(Saving saving) {
+        return saving.repository.save(saving.nextAppointment());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean saveConcurrent(Saving saving) {
+        return saving.repository.save(saving.nextAppointment());
+    }
+}
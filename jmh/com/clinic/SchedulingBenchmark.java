@@ -0,0 +1,89 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Slot and date generation: the original list-building loops against the bitmap calendar and scheduler. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulingBenchmark {
+    private Dermatologist silva;
+    private LocalDate monday;
+    private DermatologistScheduler scheduler;
+
+    @Setup
+    public void reserveSlots() {
+        silva = Fixtures.ROSTER.get(0);
+        monday = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+        SlotCalendar calendar = new SlotCalendar();
+        scheduler = new DermatologistScheduler(Fixtures.ROSTER.getDermatologists(), calendar);
+        for (int slot = 0; slot < 32; slot += 3) {
+            calendar.reserve(silva, monday, silva.getStartTime().plusMinutes(15L * slot));
+        }
+    }
+
+    @Benchmark
+    public List<LocalTime> legacyGenerateTimeSlots() {
+        List<LocalTime> timeSlots = new ArrayList<>();
+        LocalTime time = silva.getStartTime();
+        while (time.isBefore(silva.getEndTime())) {
+            timeSlots.add(time);
+            time = time.plusMinutes(15);
+        }
+        return timeSlots;
+    }
+
+    @Benchmark
+    public List<LocalTime> availableTimeSlots() {
+        return scheduler.availableTimeSlots(silva, monday);
+    }
+
+    /** The original loop never terminates when started on a Sunday for doctors who do not work Sundays, so it starts from a fixed Monday. */
+    @Benchmark
+    public List<LocalDate> legacyGenerateNextAvailableDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate startDate = monday;
+        int count = 0;
+        while (count < 5) {
+            for (String day : silva.getAvailableDays()) {
+                LocalDate nextDate = startDate.with(DayOfWeek.valueOf(day.toUpperCase(Locale.ROOT)));
+                if (!nextDate.isBefore(startDate) && count < 5) {
+                    dates.add(nextDate);
+                    count++;
+                }
+            }
+            startDate = startDate.plusWeeks(1);
+        }
+        return dates;
+    }
+
+    @Benchmark
+    public List<LocalDate> nextAvailableDates() {
+        return scheduler.nextAvailableDates(silva);
+    }
+
+    @Benchmark
+    public TimeSlot firstFreeSlot() {
+        return scheduler.firstFreeSlot();
+    }
+}
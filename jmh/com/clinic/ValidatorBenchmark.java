@@ -0,0 +1,101 @@
+package com.clinic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The original {@code String.matches} checks against the precompiled scanners, on a mix of valid and invalid input.
+ * Bulk validation is reported per patient row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    static final int ROWS = 100_000;
+    static final String[] EMAILS = {"nimal.perera@clinic.lk", "bad-email", "a+b_c@x.com", "@missing.lk"};
+    static final String[] PHONES = {"0771234567", "077123456", "07712345678", "07712x4567"};
+
+    List<Patient> rows;
+
+    @Setup
+    public void createRows() {
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Patient("NIC" + (100_000_000 + i), "Patient " + i, EMAILS[i & 3], PHONES[i & 3]));
+        }
+    }
+
+    @Benchmark
+    public boolean legacyIsValidEmail() {
+        return legacyIsValidEmail(EMAILS[ThreadLocalRandom.current().nextInt(4)]);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return InputValidator.isValidEmail(EMAILS[ThreadLocalRandom.current().nextInt(4)]);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidPhone() {
+        return legacyIsValidPhone(PHONES[ThreadLocalRandom.current().nextInt(4)]);
+    }
+
+    @Benchmark
+    public boolean isValidPhone() {
+        return InputValidator.isValidPhone(PHONES[ThreadLocalRandom.current().nextInt(4)]);
+    }
+
+    /** What an import did before {@code validateAll}: a sequential loop over the regex checks. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<String> legacyValidateAll() {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Patient patient = rows.get(i);
+            if (patient.getNic() == null || patient.getNic().length() < 9) {
+                errors.add(i + ":nic");
+            }
+            if (patient.getName() == null || patient.getName().length() < 4) {
+                errors.add(i + ":name");
+            }
+            if (!legacyIsValidEmail(patient.getEmail())) {
+                errors.add(i + ":email");
+            }
+            if (!legacyIsValidPhone(patient.getPhone())) {
+                errors.add(i + ":phone");
+            }
+        }
+        return errors;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<ValidationError> validateAll() {
+        return InputValidator.validateAll(rows);
+    }
+
+    private static boolean legacyIsValidEmail(String email) {
+        return email != null && email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+    }
+
+    private static boolean legacyIsValidPhone(String phone) {
+        return phone != null && phone.matches("\\d{10}");
+    }
+}
@@ -1,45 +1,73 @@
 package com.clinic;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 class Appointment {
-    private static int idCounter = 1;
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
     private final int id;
     private final Patient patient;
-    private Dermatologist dermatologist;
-    private String date;
-    private String time;
-    private boolean isPaid;
+    private volatile Slot slot;
+    private volatile boolean isPaid;
+    private volatile TreatmentType treatmentType;
 
     public Appointment(Patient patient, Dermatologist dermatologist, String date, String time) {
-        this.id = idCounter++;
+        this.id = idCounter.getAndIncrement();
         this.patient = patient;
-        this.dermatologist = dermatologist;
-        this.date = date;
-        this.time = time;
+        this.slot = new Slot(dermatologist, date, time);
         this.isPaid = false;
     }
 
+    Appointment(int id, Patient patient, Dermatologist dermatologist, String date, String time, boolean isPaid) {
+        this.id = id;
+        this.patient = patient;
+        this.slot = new Slot(dermatologist, date, time);
+        this.isPaid = isPaid;
+        idCounter.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /** Keeps newly created appointments from reusing IDs up to {@code id}, which a store may hold without materialising. */
+    static void reserveIdsThrough(int id) {
+        idCounter.accumulateAndGet(id + 1, Math::max);
+    }
+
     public void markAsPaid() { this.isPaid = true; }
+    public boolean isPaid() { return isPaid; }
+    /** The treatment the appointment was invoiced for, or {@code null} if it has not been invoiced. */
+    public TreatmentType getTreatmentType() { return treatmentType; }
     public int getId() { return id; }
-    public String getDate() { return date; }
-    public String getTime() { return time; }
+    public String getDate() { return slot.date(); }
+    public String getTime() { return slot.time(); }
     public Patient getPatient() { return patient; }
-    public Dermatologist getDermatologist() { return dermatologist; }
-    public void setDermatologist(Dermatologist dermatologist) { this.dermatologist = dermatologist; }
-    public void setDate(String date) { this.date = date; }
-    public void setTime(String time) { this.time = time; }
+    public Dermatologist getDermatologist() { return slot.dermatologist(); }
+    /** Doctor, date and time as one consistent snapshot; read this rather than the getters when using more than one. */
+    public Slot getSlot() { return slot; }
+    public void setDermatologist(Dermatologist dermatologist) { reschedule(dermatologist, getDate(), getTime()); }
+    public void setDate(String date) { reschedule(getDermatologist(), date, getTime()); }
+    public void setTime(String time) { reschedule(getDermatologist(), getDate(), time); }
+
+    /** Moves the appointment in one step, so readers never see the new doctor with the old date or time. */
+    public void reschedule(Dermatologist dermatologist, String date, String time) {
+        this.slot = new Slot(dermatologist, date, time);
+    }
+
+    /** A copy of this appointment that refers to {@code patient}, the registered record of the same person. */
+    Appointment withPatient(Patient patient) {
+        Slot current = slot;
+        Appointment copy = new Appointment(id, patient, current.dermatologist(), current.date(), current.time(), isPaid);
+        copy.treatmentType = treatmentType;
+        return copy;
+    }
+
+    public void markAsPaid(TreatmentType treatmentType) {
+        this.treatmentType = treatmentType;
+        this.isPaid = true;
+    }
+
+    record Slot(Dermatologist dermatologist, String date, String time) {
+    }
 
     @Override
     public String toString() {
-        return """
-            🏥🧾 Clinic Appointment Receipt
-            ================================
-            📅 Appointment ID : %d
-            🧑 Patient Name   : %s
-            👩‍⚕️ Dermatologist: %s
-            📆 Date           : %s
-            ⏰ Time            : %s
-            💳 Payment Status  : %s
-            ================================
-            """.formatted(id, patient.getName(), dermatologist.getName(), date, time, (isPaid ? "Paid ✅" : "Pending ❌"));
+        return ReceiptRenderer.EMOJI.render(this);
     }
 }
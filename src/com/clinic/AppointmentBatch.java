@@ -0,0 +1,10 @@
+package com.clinic;
+
+import java.util.List;
+
+/** A run of appointments in time order and the {@link AppointmentTimeIndex} cursor to continue after it. */
+record AppointmentBatch(List<Appointment> appointments, long lastCursor) {
+    public boolean isEmpty() {
+        return appointments.isEmpty();
+    }
+}
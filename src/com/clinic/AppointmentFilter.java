@@ -0,0 +1,54 @@
+package com.clinic;
+
+import java.time.LocalDate;
+
+final class AppointmentFilter {
+    private static final AppointmentFilter ALL = new AppointmentFilter(null, null, null, null);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Dermatologist dermatologist;
+    private final Boolean paid;
+    private final String fromIso;
+    private final String toIso;
+
+    private AppointmentFilter(LocalDate from, LocalDate to, Dermatologist dermatologist, Boolean paid) {
+        this.from = from;
+        this.to = to;
+        this.dermatologist = dermatologist;
+        this.paid = paid;
+        this.fromIso = from == null ? null : from.toString();
+        this.toIso = to == null ? null : to.toString();
+    }
+
+    public static AppointmentFilter all() {
+        return ALL;
+    }
+
+    public AppointmentFilter between(LocalDate from, LocalDate to) {
+        return new AppointmentFilter(from, to, dermatologist, paid);
+    }
+
+    public AppointmentFilter withDermatologist(Dermatologist dermatologist) {
+        return new AppointmentFilter(from, to, dermatologist, paid);
+    }
+
+    public AppointmentFilter withPaid(Boolean paid) {
+        return new AppointmentFilter(from, to, dermatologist, paid);
+    }
+
+    public boolean matches(Appointment appointment) {
+        Appointment.Slot slot = appointment.getSlot();
+        if (dermatologist != null && slot.dermatologist() != dermatologist) {
+            return false;
+        }
+        if (paid != null && appointment.isPaid() != paid) {
+            return false;
+        }
+        // ISO-8601 dates order chronologically as strings, so no per-appointment parsing is needed.
+        if (fromIso != null && slot.date().compareTo(fromIso) < 0) {
+            return false;
+        }
+        return toIso == null || slot.date().compareTo(toIso) <= 0;
+    }
+}
@@ -0,0 +1,409 @@
+package com.clinic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary write-ahead log of appointment events with periodic compacted snapshots.
+ * Appends are queued and written by a single writer thread that fsyncs once per batch (group commit).
+ *
+ * <p>A batch that fails to commit may leave a partial frame at the tail, and replay stops at the first bad frame, so
+ * nothing written after it would survive a restart. The log therefore fails permanently on the first commit error:
+ * that batch, everything still queued and every later append complete exceptionally.
+ *
+ * <p>When the log grows past the snapshot, the writer only rotates it aside; a background compactor then folds the
+ * previous snapshot and the rotated segment into a new snapshot. Compaction works from the files alone, so it never
+ * sees state that is not yet durable and never holds up pending commits.
+ */
+class AppointmentLog implements Closeable {
+    private static final byte SAVE = 1;
+    private static final byte UPDATE = 2;
+    private static final byte PAID = 3;
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 50_000;
+
+    interface Listener {
+        void onSave(Appointment appointment);
+        void onUpdate(int id, Dermatologist dermatologist, String date, String time);
+        void onPaid(int id, TreatmentType treatmentType);
+    }
+
+    private final Path logFile;
+    private final Path rotatedLogFile;
+    private final Path snapshotFile;
+    private final int snapshotInterval;
+    private final BlockingQueue<PendingWrite> pending = new LinkedBlockingQueue<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final Object appendLock = new Object();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "appointment-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Function<String, Dermatologist> dermatologists = name -> null;
+    private FileChannel channel;
+    private Thread writer;
+    private long validLogBytes;
+    private long recordsSinceSnapshot;
+    private volatile long snapshotRecords;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AppointmentLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public AppointmentLog(Path directory, int snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        this.logFile = directory.resolve("appointments.wal");
+        this.rotatedLogFile = directory.resolve("appointments.wal.old");
+        this.snapshotFile = directory.resolve("appointments.snapshot");
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public void replay(Function<String, Dermatologist> dermatologists, Listener listener) throws IOException {
+        this.dermatologists = dermatologists;
+        snapshotRecords = replayFile(snapshotFile, dermatologists, listener).records();
+        replayFile(rotatedLogFile, dermatologists, listener);
+        Segment log = replayFile(logFile, dermatologists, listener);
+        recordsSinceSnapshot = log.records();
+        validLogBytes = log.bytes();
+    }
+
+    /** Opens the log for appending after {@link #replay}, cutting off any torn tail so new records stay reachable. */
+    public void start() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLogBytes);
+        channel.position(validLogBytes);
+        channel.force(true);
+        if (Files.exists(rotatedLogFile) && compacting.compareAndSet(false, true)) {
+            // A compaction was interrupted; finish folding the rotated segment in the background.
+            compactor.execute(this::compactRotated);
+        }
+        writer = new Thread(this::writeLoop, "appointment-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Void> appendSave(Appointment appointment) {
+        return append(encode(SAVE, appointment));
+    }
+
+    public CompletableFuture<Void> appendUpdate(Appointment appointment) {
+        return append(encode(UPDATE, appointment));
+    }
+
+    public CompletableFuture<Void> appendPaid(Appointment appointment) {
+        return append(encode(PAID, appointment));
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.add(PendingWrite.SHUTDOWN);
+        }
+        try {
+            if (writer != null) {
+                writer.join();
+            }
+            compactor.shutdown();
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<Void> append(byte[] record) {
+        PendingWrite write = new PendingWrite(record);
+        // Checked and queued under one lock, so nothing is queued behind the SHUTDOWN marker.
+        synchronized (appendLock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Appointment log is closed"));
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new UncheckedIOException("Appointment log failed", failure));
+            }
+            pending.add(write);
+        }
+        return write.committed;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (batch.remove(PendingWrite.SHUTDOWN)) {
+                running = false;
+            }
+            if (failure != null) {
+                fail(batch);
+                continue;
+            }
+            try {
+                commit(batch);
+                batch.forEach(write -> write.committed.complete(null));
+                recordsSinceSnapshot += batch.size();
+                // Compact only once the log has grown as large as the snapshot, so bulk loads rewrite it a logarithmic
+                // number of times instead of every snapshotInterval records.
+                if (running && recordsSinceSnapshot >= Math.max(snapshotInterval, snapshotRecords) && compacting.compareAndSet(false, true)) {
+                    rotate();
+                    compactor.execute(this::compactRotated);
+                }
+            } catch (IOException e) {
+                failure = e;
+                System.err.println(MessageFormatter.error("Appointment log failed, rejecting further writes: " + e.getMessage()));
+                fail(batch);
+            }
+            batch.clear();
+        }
+        // Only reached after an interrupt; nothing can be queued after SHUTDOWN.
+        pending.drainTo(batch);
+        batch.remove(PendingWrite.SHUTDOWN);
+        fail(batch);
+    }
+
+    private void fail(List<PendingWrite> batch) {
+        IOException cause = failure != null ? failure : new IOException("Appointment log writer stopped");
+        batch.forEach(write -> write.committed.completeExceptionally(new UncheckedIOException(cause)));
+        batch.clear();
+    }
+
+    private void commit(List<PendingWrite> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).record);
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        channel.force(false);
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        try {
+            Files.move(logFile, rotatedLogFile, StandardCopyOption.ATOMIC_MOVE);
+            recordsSinceSnapshot = 0;
+        } catch (IOException e) {
+            compacting.set(false);
+            throw e;
+        } finally {
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /** Folds the snapshot and the rotated segment into a new snapshot, then drops the segment. */
+    private void compactRotated() {
+        try {
+            Map<Integer, Appointment> appointments = new LinkedHashMap<>();
+            Listener folding = new Listener() {
+                @Override
+                public void onSave(Appointment appointment) {
+                    appointments.put(appointment.getId(), appointment);
+                }
+
+                @Override
+                public void onUpdate(int id, Dermatologist dermatologist, String date, String time) {
+                    Appointment appointment = appointments.get(id);
+                    if (appointment != null) {
+                        appointment.reschedule(dermatologist, date, time);
+                    }
+                }
+
+                @Override
+                public void onPaid(int id, TreatmentType treatmentType) {
+                    Appointment appointment = appointments.get(id);
+                    if (appointment != null) {
+                        appointment.markAsPaid(treatmentType);
+                    }
+                }
+            };
+            replayFile(snapshotFile, dermatologists, folding);
+            replayFile(rotatedLogFile, dermatologists, folding);
+
+            Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                for (Appointment appointment : appointments.values()) {
+                    out.write(encode(SAVE, appointment));
+                }
+            }
+            try (FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                snapshot.force(true);
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(rotatedLogFile);
+            snapshotRecords = appointments.size();
+        } catch (IOException | RuntimeException e) {
+            // The rotated segment stays in place and is replayed on the next start; nothing is lost.
+            System.err.println(MessageFormatter.error("Appointment log compaction failed: " + e.getMessage()));
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    /** Replays every intact record up to the first torn or corrupt one; returns how many there were and their size. */
+    private static Segment replayFile(Path file, Function<String, Dermatologist> dermatologists, Listener listener) throws IOException {
+        if (!Files.exists(file)) {
+            return new Segment(0, 0);
+        }
+        long records = 0;
+        long bytes = 0;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(stream);
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        return new Segment(records, bytes);
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        return new Segment(records, bytes);
+                    }
+                } catch (EOFException tornTail) {
+                    return new Segment(records, bytes);
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), dermatologists, listener);
+                records++;
+                bytes += payload.length + 2L * Integer.BYTES;
+            }
+        }
+    }
+
+    private static void apply(DataInputStream in, Function<String, Dermatologist> dermatologists, Listener listener) throws IOException {
+        byte type = in.readByte();
+        int id = in.readInt();
+        switch (type) {
+            case SAVE -> {
+                Dermatologist dermatologist = dermatologists.apply(in.readUTF());
+                String date = in.readUTF();
+                String time = in.readUTF();
+                boolean paid = in.readBoolean();
+                Patient patient = new Patient(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+                Appointment appointment = new Appointment(id, patient, dermatologist, date, time, paid);
+                TreatmentType treatmentType = readTreatment(in);
+                if (treatmentType != null) {
+                    appointment.markAsPaid(treatmentType);
+                }
+                listener.onSave(appointment);
+            }
+            case UPDATE -> listener.onUpdate(id, dermatologists.apply(in.readUTF()), in.readUTF(), in.readUTF());
+            case PAID -> listener.onPaid(id, readTreatment(in));
+            default -> throw new IOException("Unknown appointment log record type " + type);
+        }
+    }
+
+    /** Records written before treatments were logged end here; they replay as paid with no treatment. */
+    private static TreatmentType readTreatment(DataInputStream in) throws IOException {
+        if (in.available() == 0) {
+            return null;
+        }
+        int ordinal = in.readByte();
+        return ordinal < 0 ? null : TreatmentType.values()[ordinal];
+    }
+
+    private static byte[] encode(byte type, Appointment appointment) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeByte(type);
+            out.writeInt(appointment.getId());
+            if (type != PAID) {
+                Appointment.Slot slot = appointment.getSlot();
+                out.writeUTF(slot.dermatologist().getName());
+                out.writeUTF(slot.date());
+                out.writeUTF(slot.time());
+            }
+            if (type == SAVE) {
+                Patient patient = appointment.getPatient();
+                out.writeBoolean(appointment.isPaid());
+                out.writeUTF(patient.getNic());
+                out.writeUTF(patient.getName());
+                out.writeUTF(patient.getEmail());
+                out.writeUTF(patient.getPhone());
+            }
+            if (type != UPDATE) {
+                TreatmentType treatmentType = appointment.getTreatmentType();
+                out.writeByte(treatmentType == null ? -1 : treatmentType.ordinal());
+            }
+            out.writeInt(0);
+            byte[] record = bytes.toByteArray();
+            int length = record.length - 2 * Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, Integer.BYTES, length);
+            ByteBuffer.wrap(record).putInt(0, length).putInt(record.length - Integer.BYTES, (int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Segment(long records, long bytes) {}
+
+    private static final class PendingWrite {
+        static final PendingWrite SHUTDOWN = new PendingWrite(new byte[0]);
+
+        final byte[] record;
+        final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        PendingWrite(byte[] record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.clinic;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Which repository owns each appointment ID, for repositories that share the global ID sequence. IDs are dense, so
+ * owners live in chunked arrays indexed by ID rather than in a map; owner numbers start at 1 and 0 means unowned.
+ */
+class AppointmentOwnership {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int UNOWNED = 0;
+
+    private final AtomicReferenceArray<AtomicIntegerArray> chunks = new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - CHUNK_BITS));
+
+    /** Records {@code owner} as the owner of {@code id}; false if another owner already has it. */
+    public boolean claim(int id, int owner) {
+        AtomicIntegerArray chunk = chunk(id >>> CHUNK_BITS);
+        int index = id & (CHUNK_SIZE - 1);
+        return chunk.compareAndSet(index, UNOWNED, owner) || chunk.get(index) == owner;
+    }
+
+    /** The owner of {@code id}, or 0 if no repository holds it. */
+    public int ownerOf(int id) {
+        if (id <= 0) {
+            return UNOWNED;
+        }
+        AtomicIntegerArray chunk = chunks.get(id >>> CHUNK_BITS);
+        return chunk == null ? UNOWNED : chunk.get(id & (CHUNK_SIZE - 1));
+    }
+
+    private AtomicIntegerArray chunk(int index) {
+        AtomicIntegerArray chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicIntegerArray(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+}
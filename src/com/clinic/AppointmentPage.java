@@ -0,0 +1,11 @@
+package com.clinic;
+
+import java.util.List;
+
+record AppointmentPage(List<Appointment> appointments, int nextCursor) {
+    public static final int END = -1;
+
+    public boolean hasNext() {
+        return nextCursor != END;
+    }
+}
@@ -1,30 +1,494 @@
 package com.clinic;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-class AppointmentRepository {
-    private final List<Appointment> appointments = new ArrayList<>();
+class AppointmentRepository implements AutoCloseable {
+    private static final int LOCK_STRIPES = 64;
+    private static final int FUZZY_SEARCH_LIMIT = 10;
+    private static final int SWEEP_BATCH_SIZE = 1024;
 
-    public void save(Appointment appointment) {
-        appointments.add(appointment);
+    private final AppointmentStore store;
+    private final Map<String, IntList> idsByPatientName = new ConcurrentHashMap<>();
+    private final PatientRegistry patients;
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex();
+    private final SlotCalendar slotCalendar = new SlotCalendar();
+    private final AppointmentTimeIndex timeIndex = new AppointmentTimeIndex();
+    private final ClinicAnalytics analytics = new ClinicAnalytics();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private AppointmentLog log;
+    private AppointmentOwnership ownership;
+    private int owner;
+    private volatile boolean failed;
+
+    public AppointmentRepository() {
+        this(new HeapAppointmentStore());
+    }
+
+    public AppointmentRepository(AppointmentStore store) {
+        this(store, new PatientRegistry(), null, 0);
+    }
+
+    /** Rebuilds every index, the analytics and any ID ownership from one scan of the store. */
+    private AppointmentRepository(AppointmentStore store, PatientRegistry patients, AppointmentOwnership ownership, int owner) {
+        this.store = store;
+        this.patients = patients;
+        this.ownership = ownership;
+        this.owner = owner;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        Appointment.reserveIdsThrough(store.maxId());
+        // Rebuilt from raw slot fields: a mapped store is scanned in place, without materialising its appointments.
+        Map<Patient, IntList> idsByPatient = new IdentityHashMap<>();
+        store.forEachSlot(1, store.maxId() + 1, (id, patient, dermatologist, epochDay, slot, invoiced) -> {
+            slotCalendar.reserve(dermatologist, epochDay, slot);
+            timeIndex.add(id, dermatologist, epochDay, slot);
+            idsByPatient.computeIfAbsent(patient, this::idsByName).add(id);
+            patients.linkAppointment(patient, id);
+            analytics.onLoaded(dermatologist, epochDay, invoiced);
+            if (ownership != null) {
+                ownership.claim(id, owner);
+            }
+        });
+    }
+
+    public static AppointmentRepository open(Path directory, DermatologistRoster roster) throws IOException {
+        return open(directory, roster, null, 0);
+    }
+
+    /** Opens a repository that shares the global ID sequence as {@code owner}, as {@link #shareIds} would. */
+    public static AppointmentRepository open(Path directory, DermatologistRoster roster, AppointmentOwnership ownership,
+                                             int owner) throws IOException {
+        AppointmentStore store = new HeapAppointmentStore();
+        PatientRegistry patients = new PatientRegistry();
+        AppointmentLog log = new AppointmentLog(directory);
+        log.replay(roster::findByName, new AppointmentLog.Listener() {
+            @Override
+            public void onSave(Appointment appointment) {
+                Patient patient = patients.intern(appointment.getPatient());
+                store.put(patient == appointment.getPatient() ? appointment : appointment.withPatient(patient));
+            }
+
+            @Override
+            public void onUpdate(int id, Dermatologist dermatologist, String date, String time) {
+                Appointment appointment = store.get(id);
+                if (appointment != null) {
+                    appointment.reschedule(dermatologist, date, time);
+                }
+            }
+
+            @Override
+            public void onPaid(int id, TreatmentType treatmentType) {
+                Appointment appointment = store.get(id);
+                if (appointment != null) {
+                    appointment.markAsPaid(treatmentType);
+                }
+            }
+        });
+        AppointmentRepository repository = new AppointmentRepository(store, patients, ownership, owner);
+        log.start();
+        repository.log = log;
+        return repository;
+    }
+
+    /**
+     * Opens a repository over a {@link MappedAppointmentStore}, which is its own file of record: there is no log to
+     * replay, and writes are made durable by {@link AppointmentStore#sync} instead.
+     */
+    public static AppointmentRepository openMapped(Path directory, DermatologistRoster roster) throws IOException {
+        return openMapped(directory, roster, null, 0);
+    }
+
+    public static AppointmentRepository openMapped(Path directory, DermatologistRoster roster, AppointmentOwnership ownership,
+                                                   int owner) throws IOException {
+        return new AppointmentRepository(new MappedAppointmentStore(directory, roster), new PatientRegistry(), ownership, owner);
+    }
+
+    /**
+     * Joins repositories that share the global ID sequence, such as the shards of one clinic. IDs already stored here
+     * are claimed for {@code owner}; from then on an insert is refused when another owner holds its ID. Call before
+     * the repository is shared between threads.
+     */
+    public void shareIds(AppointmentOwnership ownership, int owner) {
+        if (this.ownership == ownership && this.owner == owner) {
+            return;
+        }
+        store.forEachSlot(1, store.maxId() + 1, (id, patient, dermatologist, epochDay, slot, invoiced) -> ownership.claim(id, owner));
+        this.ownership = ownership;
+        this.owner = owner;
+    }
+
+    /** Whether the ID belongs to another repository sharing the ID sequence. */
+    public boolean isOwnedElsewhere(int id) {
+        if (ownership == null) {
+            return false;
+        }
+        int idOwner = ownership.ownerOf(id);
+        return idOwner != 0 && idOwner != owner;
+    }
+
+    public boolean save(Appointment appointment) {
+        checkAvailable();
+        CompletableFuture<Void> logged;
+        // SAVE is queued under the same lock as PAID and UPDATE, so the log never holds them ahead of the SAVE.
+        synchronized (lockFor(appointment.getId())) {
+            Appointment stored = insert(appointment);
+            if (stored == null) {
+                return false;
+            }
+            logged = log == null ? null : log.appendSave(stored);
+        }
+        awaitDurable(logged);
+        return true;
+    }
+
+    /** Saves a batch, waiting for durability once for the whole batch. Returns the appointments that were saved. */
+    public List<Appointment> saveAll(List<Appointment> appointments) {
+        checkAvailable();
+        List<Appointment> saved = new ArrayList<>(appointments.size());
+        List<CompletableFuture<Void>> logged = new ArrayList<>(log == null ? 0 : appointments.size());
+        for (Appointment appointment : appointments) {
+            synchronized (lockFor(appointment.getId())) {
+                Appointment stored = insert(appointment);
+                if (stored != null) {
+                    saved.add(appointment);
+                    if (log != null) {
+                        logged.add(log.appendSave(stored));
+                    }
+                }
+            }
+        }
+        if (!saved.isEmpty()) {
+            awaitDurable(log == null ? null : CompletableFuture.allOf(logged.toArray(CompletableFuture[]::new)));
+        }
+        return saved;
     }
 
     public List<Appointment> findAll() {
-        return appointments;
+        return stream(AppointmentFilter.all()).toList();
+    }
+
+    public Stream<Appointment> stream(AppointmentFilter filter) {
+        checkAvailable();
+        return IntStream.rangeClosed(1, store.maxId())
+                .mapToObj(store::get)
+                .filter(appointment -> appointment != null && filter.matches(appointment));
+    }
+
+    public AppointmentPage findPage(AppointmentFilter filter, int cursor, int pageSize) {
+        checkAvailable();
+        List<Appointment> appointments = new ArrayList<>(pageSize);
+        int lastId = store.maxId();
+        for (int id = Math.max(cursor, 1); id <= lastId; id++) {
+            Appointment appointment = store.get(id);
+            if (appointment == null || !filter.matches(appointment)) {
+                continue;
+            }
+            if (appointments.size() == pageSize) {
+                return new AppointmentPage(Collections.unmodifiableList(appointments), id);
+            }
+            appointments.add(appointment);
+        }
+        return new AppointmentPage(Collections.unmodifiableList(appointments), AppointmentPage.END);
     }
 
     public Appointment findById(int id) {
-        return appointments.stream().filter(a -> a.getId() == id).findFirst().orElse(null);
+        checkAvailable();
+        return store.get(id);
+    }
+
+    public List<Appointment> findByNic(String nic) {
+        return resolve(patients.appointmentIds(nic));
+    }
+
+    public Patient findPatient(String nic) {
+        return patients.findByNic(nic);
+    }
+
+    public void forEachPatient(Consumer<Patient> action) {
+        patients.forEach(action);
     }
 
     public List<Appointment> search(String query) {
-        List<Appointment> result = new ArrayList<>();
-        for (Appointment appointment : appointments) {
-            if (appointment.getPatient().getName().equalsIgnoreCase(query) || String.valueOf(appointment.getId()).equals(query)) {
-                result.add(appointment);
+        List<Appointment> result = resolve(idsByPatientName.get(nameKey(query)));
+        if (result.isEmpty()) {
+            result = findByNic(query.trim());
+        }
+        int id = parseId(query);
+        Appointment byId = findById(id);
+        if (byId != null && result.stream().noneMatch(a -> a.getId() == id)) {
+            result.add(byId);
+        }
+        if (result.isEmpty()) {
+            for (Patient patient : searchPatients(query, FUZZY_SEARCH_LIMIT)) {
+                result.addAll(findByNic(patient.getNic()));
             }
         }
         return result;
     }
+
+    public List<Patient> searchPatients(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public boolean update(Appointment appointment, Dermatologist dermatologist, String date, String time) {
+        checkAvailable();
+        CompletableFuture<Void> logged;
+        synchronized (lockFor(appointment.getId())) {
+            Appointment current = store.get(appointment.getId());
+            if (current == null) {
+                return false;
+            }
+            Dermatologist oldDermatologist = current.getDermatologist();
+            LocalDate oldDate = IsoDates.parseDate(current.getDate());
+            LocalTime oldTime = IsoDates.parseTime(current.getTime());
+            LocalDate newDate = IsoDates.parseDate(date);
+            LocalTime newTime = IsoDates.parseTime(time);
+            boolean sameSlot = oldDermatologist == dermatologist && oldDate.equals(newDate) && oldTime.equals(newTime);
+            if (!sameSlot) {
+                if (!slotCalendar.reserve(dermatologist, newDate, newTime)) {
+                    return false;
+                }
+                slotCalendar.release(oldDermatologist, oldDate, oldTime);
+                timeIndex.remove(current.getId(), oldDermatologist, oldDate, oldTime);
+                timeIndex.add(current.getId(), dermatologist, newDate, newTime);
+                if (oldDermatologist != dermatologist || !oldDate.equals(newDate)) {
+                    analytics.onMoved(current, oldDermatologist, oldDate, dermatologist, newDate);
+                }
+            }
+            current.reschedule(dermatologist, date, time);
+            if (appointment != current) {
+                appointment.reschedule(dermatologist, date, time);
+            }
+            store.put(current);
+            logged = log == null ? null : log.appendUpdate(current);
+        }
+        awaitDurable(logged);
+        return true;
+    }
+
+    /** Marks the appointment paid for the treatment; returns the treatment it was already invoiced for, if any. */
+    public TreatmentType markAsPaid(Appointment appointment, TreatmentType treatmentType) {
+        checkAvailable();
+        CompletableFuture<Void> logged;
+        TreatmentType previous;
+        synchronized (lockFor(appointment.getId())) {
+            Appointment current = store.get(appointment.getId());
+            previous = current == null ? null : current.getTreatmentType();
+            appointment.markAsPaid(treatmentType);
+            if (current == null) {
+                return null;
+            }
+            current.markAsPaid(treatmentType);
+            analytics.onPaid(current, IsoDates.parseDate(current.getDate()), previous, treatmentType);
+            store.put(current);
+            logged = log == null ? null : log.appendPaid(current);
+        }
+        awaitDurable(logged);
+        return previous;
+    }
+
+    /**
+     * Marks each invoiced appointment paid for its treatment, as {@link #markAsPaid} does one at a time, waiting for
+     * durability once for the whole batch. Returns, per invoice, the treatment it was already invoiced for, if any.
+     */
+    public List<TreatmentType> markAllAsPaid(List<Invoice> invoices) {
+        checkAvailable();
+        List<TreatmentType> previous = new ArrayList<>(invoices.size());
+        List<CompletableFuture<Void>> logged = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            Appointment appointment = invoice.getAppointment();
+            synchronized (lockFor(appointment.getId())) {
+                Appointment current = store.get(appointment.getId());
+                TreatmentType replaced = current == null ? null : current.getTreatmentType();
+                previous.add(replaced);
+                appointment.markAsPaid(invoice.getTreatmentType());
+                if (current == null) {
+                    continue;
+                }
+                current.markAsPaid(invoice.getTreatmentType());
+                analytics.onPaid(current, IsoDates.parseDate(current.getDate()), replaced, invoice.getTreatmentType());
+                store.put(current);
+                if (log != null) {
+                    logged.add(log.appendPaid(current));
+                }
+            }
+        }
+        if (!invoices.isEmpty()) {
+            awaitDurable(log == null ? null : CompletableFuture.allOf(logged.toArray(CompletableFuture[]::new)));
+        }
+        return previous;
+    }
+
+    /** The doctor's appointments on the given date, in time order. */
+    public List<Appointment> findAgenda(Dermatologist dermatologist, LocalDate date) {
+        return resolve(timeIndex.agenda(dermatologist, date));
+    }
+
+    /**
+     * Up to {@code limit} appointments after {@code afterCursor} and before {@code before}, across all doctors in time
+     * order. Pass {@link AppointmentTimeIndex#cursorBefore} to start at a moment, then the batch's last cursor to
+     * continue.
+     */
+    public AppointmentBatch findBetween(long afterCursor, LocalDateTime before, int limit) {
+        long[] cursors = timeIndex.between(afterCursor, AppointmentTimeIndex.cursorBefore(before), limit);
+        int[] ids = new int[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            ids[i] = AppointmentTimeIndex.idOf(cursors[i]);
+        }
+        return new AppointmentBatch(resolve(ids), cursors.length == 0 ? afterCursor : cursors[cursors.length - 1]);
+    }
+
+    /** Unpaid appointments from {@code from} up to {@code to}: patients who never reached the invoice desk. */
+    public List<Appointment> findNoShows(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> noShows = new ArrayList<>();
+        AppointmentBatch batch = new AppointmentBatch(List.of(), AppointmentTimeIndex.cursorBefore(from));
+        do {
+            batch = findBetween(batch.lastCursor(), to, SWEEP_BATCH_SIZE);
+            for (Appointment appointment : batch.appointments()) {
+                if (!appointment.isPaid()) {
+                    noShows.add(appointment);
+                }
+            }
+        } while (!batch.isEmpty());
+        return noShows;
+    }
+
+    /** Total invoiced for appointments on the given date. */
+    public long revenueCents(LocalDate date) {
+        return analytics.revenueCents(date);
+    }
+
+    public ClinicAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    public SlotCalendar getSlotCalendar() {
+        return slotCalendar;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void close() {
+        if (log != null) {
+            log.close();
+        }
+        store.close();
+    }
+
+    /**
+     * Books the slot and stores the appointment under the registered record of its patient, so every booking for one
+     * NIC shares one {@link Patient}. Returns the stored appointment, or {@code null} if the slot or ID is taken.
+     */
+    private Appointment insert(Appointment appointment) {
+        Appointment.Slot slot = appointment.getSlot();
+        LocalDate date = IsoDates.parseDate(slot.date());
+        LocalTime time = IsoDates.parseTime(slot.time());
+        if (!slotCalendar.reserve(slot.dermatologist(), date, time)) {
+            return null;
+        }
+        if (ownership != null && !ownership.claim(appointment.getId(), owner)) {
+            slotCalendar.release(slot.dermatologist(), date, time);
+            return null;
+        }
+        Patient patient = patients.intern(appointment.getPatient());
+        Appointment stored = patient == appointment.getPatient() ? appointment : appointment.withPatient(patient);
+        if (!store.insert(stored)) {
+            slotCalendar.release(slot.dermatologist(), date, time);
+            return null;
+        }
+        index(stored, date, time);
+        analytics.onBooked(stored, date);
+        return stored;
+    }
+
+    private void index(Appointment appointment, LocalDate date, LocalTime time) {
+        timeIndex.add(appointment.getId(), appointment.getDermatologist(), date, time);
+        Patient patient = appointment.getPatient();
+        idsByName(patient).add(appointment.getId());
+        patients.linkAppointment(patient, appointment.getId());
+    }
+
+    private IntList idsByName(Patient patient) {
+        searchIndex.add(patient);
+        return idsByPatientName.computeIfAbsent(nameKey(patient.getName()), k -> new IntList());
+    }
+
+    private List<Appointment> resolve(IntList ids) {
+        return ids == null ? new ArrayList<>() : resolve(ids.toArray());
+    }
+
+    private List<Appointment> resolve(int[] ids) {
+        checkAvailable();
+        List<Appointment> appointments = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Appointment appointment = store.get(id);
+            if (appointment != null) {
+                appointments.add(appointment);
+            }
+        }
+        return appointments;
+    }
+
+    /**
+     * Waits for the log append, or syncs the store when there is no log. A failed write leaves memory ahead of what
+     * is on disk, so the repository stops serving until a restart rebuilds it from disk.
+     */
+    private void awaitDurable(CompletableFuture<Void> logged) {
+        try {
+            if (logged == null) {
+                store.sync();
+            } else {
+                logged.join();
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private void checkAvailable() {
+        if (failed) {
+            throw new IllegalStateException("Appointment storage failed a write; restart to recover");
+        }
+    }
+
+    private Object lockFor(int id) {
+        return locks[id & (LOCK_STRIPES - 1)];
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int parseId(String query) {
+        try {
+            return Integer.parseInt(query.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
@@ -1,121 +1,129 @@
 package com.clinic;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 class AppointmentService {
     private final AppointmentRepository repository;
+    private final DermatologistRoster roster;
     private final List<Dermatologist> dermatologists;
+    private final DermatologistScheduler scheduler;
+    private final ClinicMetrics metrics;
+    private final Clock clock;
 
-    public AppointmentService(AppointmentRepository repository) {
+    public AppointmentService(AppointmentRepository repository, DermatologistRoster roster, ClinicMetrics metrics) {
+        this(repository, roster, metrics, Clock.systemDefaultZone());
+    }
+
+    public AppointmentService(AppointmentRepository repository, DermatologistRoster roster, ClinicMetrics metrics, Clock clock) {
         this.repository = repository;
-        this.dermatologists = List.of(
-                new Dermatologist("Dr. Silva", List.of("MONDAY", "WEDNESDAY", "FRIDAY"), LocalTime.of(9, 0), LocalTime.of(17, 0)),
-                new Dermatologist("Dr. Perera", List.of("SATURDAY"), LocalTime.of(10, 0), LocalTime.of(15, 0)),
-                new Dermatologist("Dr. Fernando", List.of("TUESDAY", "THURSDAY", "SATURDAY"), LocalTime.of(8, 0), LocalTime.of(12, 0)),
-                new Dermatologist("Dr. Wijeratne", List.of("MONDAY", "THURSDAY", "SUNDAY"), LocalTime.of(13, 0), LocalTime.of(18, 0))
-        );
+        this.roster = roster;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.dermatologists = roster.getDermatologists();
+        this.scheduler = new DermatologistScheduler(dermatologists, repository.getSlotCalendar(), clock);
     }
 
     public List<Dermatologist> getDermatologists() { return dermatologists; }
+    public Dermatologist findDermatologist(String name) { return roster.findByName(name); }
+    public ClinicMetrics getMetrics() { return metrics; }
 
-    public void bookAppointment(Appointment appointment) {
-        repository.save(appointment);
-        System.out.println(appointment);
-        System.out.println(MessageFormatter.success("Appointment successfully booked!"));
+    /** A working slot that has not started yet. */
+    public boolean isBookable(Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        return SlotCalendar.isWorkingSlot(dermatologist, date, time)
+                && LocalDateTime.of(date, time).isAfter(LocalDateTime.now(clock));
     }
 
-    public List<Appointment> viewAppointments() {
-        return repository.findAll();
+    public ServiceResult<Appointment> book(BookingRequest request) {
+        long started = System.nanoTime();
+        ServiceResult<Appointment> result = bookSlot(request);
+        metrics.recordBooking(request.dermatologist(), result.isSuccess(), System.nanoTime() - started);
+        return result;
     }
 
-    public List<Appointment> searchAppointment(String query) {
-        return repository.search(query);
+    private ServiceResult<Appointment> bookSlot(BookingRequest request) {
+        if (!isBookable(request.dermatologist(), request.date(), request.time())) {
+            return ServiceResult.failure(Outcome.INVALID, "Doctor, date or time is not a bookable slot.");
+        }
+        Appointment appointment = new Appointment(request.patient(), request.dermatologist(), request.date().toString(), request.time().toString());
+        if (!repository.save(appointment)) {
+            return ServiceResult.failure(Outcome.SLOT_UNAVAILABLE, "That time slot is already booked. Appointment not booked.");
+        }
+        return ServiceResult.success(appointment, "Appointment successfully booked!");
+    }
+
+    public ServiceResult<Appointment> reschedule(RescheduleRequest request) {
+        long started = System.nanoTime();
+        ServiceResult<Appointment> result = rescheduleSlot(request);
+        metrics.recordUpdate(request.dermatologist(), result.isSuccess(), System.nanoTime() - started);
+        return result;
     }
 
-    public void updateAppointment(int appointmentId, Scanner scanner) {
-        Appointment appointment = repository.findById(appointmentId);
+    private ServiceResult<Appointment> rescheduleSlot(RescheduleRequest request) {
+        Appointment appointment = repository.findById(request.appointmentId());
         if (appointment == null) {
-            System.out.println(MessageFormatter.error("Appointment not found."));
-            return;
+            return ServiceResult.failure(Outcome.NOT_FOUND, "Appointment not found.");
         }
-
-        System.out.println(MessageFormatter.info("Available Dermatologists:"));
-        for (int i = 0; i < dermatologists.size(); i++) {
-            System.out.println((i + 1) + ". " + dermatologists.get(i).getName() + " (Available: " + dermatologists.get(i).getSchedule() + ")");
+        if (!isBookable(request.dermatologist(), request.date(), request.time())) {
+            return ServiceResult.failure(Outcome.INVALID, "Doctor, date or time is not a bookable slot.");
         }
-        int doctorChoice = promptNumericInput("Select a dermatologist (enter number): ", 1, dermatologists.size(), scanner) - 1;
-        Dermatologist selectedDoctor = dermatologists.get(doctorChoice);
-
-        List<LocalDate> availableDates = generateNextAvailableDates(selectedDoctor.getAvailableDays(), 5);
-        System.out.println(MessageFormatter.info("Available Dates:"));
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        for (int i = 0; i < availableDates.size(); i++) {
-            System.out.println((i + 1) + ". " + availableDates.get(i).format(dateFormatter));
+        if (!repository.update(appointment, request.dermatologist(), request.date().toString(), request.time().toString())) {
+            return ServiceResult.failure(Outcome.SLOT_UNAVAILABLE, "That time slot is already booked. Appointment not updated.");
         }
+        return ServiceResult.success(appointment, "Appointment updated successfully.");
+    }
+
+    public Appointment findAppointment(int appointmentId) {
+        return repository.findById(appointmentId);
+    }
 
-        int dateChoice = promptNumericInput("Select an available date by entering the corresponding number: ", 1, availableDates.size(), scanner) - 1;
-        LocalDate appointmentDate = availableDates.get(dateChoice);
+    public List<LocalDate> getAvailableDates(Dermatologist dermatologist) {
+        return scheduler.nextAvailableDates(dermatologist);
+    }
 
-        List<LocalTime> availableTimes = generateTimeSlots(selectedDoctor.getStartTime(), selectedDoctor.getEndTime(), 15);
-        System.out.println(MessageFormatter.info("Available Time Slots:"));
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-        for (int i = 0; i < availableTimes.size(); i++) {
-            System.out.println((i + 1) + ". " + availableTimes.get(i).format(timeFormatter));
-        }
+    public List<LocalTime> getAvailableTimeSlots(Dermatologist dermatologist, LocalDate date) {
+        return scheduler.availableTimeSlots(dermatologist, date);
+    }
 
-        int timeChoice = promptNumericInput("Select an available time slot by entering the corresponding number: ", 1, availableTimes.size(), scanner) - 1;
-        LocalTime appointmentTime = availableTimes.get(timeChoice);
+    public TimeSlot findFirstFreeSlot() {
+        return scheduler.firstFreeSlot();
+    }
 
-        appointment.setDermatologist(selectedDoctor);
-        appointment.setDate(appointmentDate.format(dateFormatter));
-        appointment.setTime(appointmentTime.format(timeFormatter));
+    public Patient findPatient(String nic) {
+        return repository.findPatient(nic);
+    }
 
-        System.out.println(MessageFormatter.success("Appointment updated successfully."));
+    public List<Appointment> getPatientHistory(String nic) {
+        return repository.findByNic(nic);
     }
 
-    private int promptNumericInput(String message, int min, int max, Scanner scanner) {
-        int input;
-        while (true) {
-            System.out.print(MessageFormatter.prompt(message));
-            try {
-                input = Integer.parseInt(scanner.nextLine());
-                if (input >= min && input <= max) break;
-            } catch (NumberFormatException ignored) {}
-            System.out.println(MessageFormatter.error("Invalid choice. Please try again."));
-        }
-        return input;
-    }
-
-    private List<LocalDate> generateNextAvailableDates(List<String> daysOfWeek, int numberOfDates) {
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate startDate = LocalDate.now();
-        int count = 0;
-
-        while (count < numberOfDates) {
-            for (String day : daysOfWeek) {
-                LocalDate nextDate = startDate.with(java.time.DayOfWeek.valueOf(day.toUpperCase()));
-                if (!nextDate.isBefore(startDate) && count < numberOfDates) {
-                    dates.add(nextDate);
-                    count++;
-                }
-            }
-            startDate = startDate.plusWeeks(1);
-        }
-        return dates;
+    public List<Appointment> getAgenda(Dermatologist dermatologist, LocalDate date) {
+        return repository.findAgenda(dermatologist, date);
     }
 
-    private List<LocalTime> generateTimeSlots(LocalTime startTime, LocalTime endTime, int intervalMinutes) {
-        List<LocalTime> timeSlots = new ArrayList<>();
-        LocalTime time = startTime;
-        while (time.isBefore(endTime)) {
-            timeSlots.add(time);
-            time = time.plusMinutes(intervalMinutes);
-        }
-        return timeSlots;
+    /** Unpaid appointments on the given date whose start time has already passed. */
+    public List<Appointment> getNoShows(LocalDate date) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+        return repository.findNoShows(date.atStartOfDay(), now.isBefore(endOfDay) ? now : endOfDay);
+    }
+
+    /** Revenue and slot utilization report from {@code from} to {@code to} inclusive, served from running aggregates. */
+    public StringBuilder appendAnalyticsReport(StringBuilder out, LocalDate from, LocalDate to) {
+        return repository.getAnalytics().appendReport(out, dermatologists, from, to);
+    }
+
+    public AppointmentPage viewAppointments(AppointmentFilter filter, int cursor, int pageSize) {
+        return repository.findPage(filter, cursor, pageSize);
+    }
+
+    public List<Appointment> searchAppointment(String query) {
+        long started = System.nanoTime();
+        List<Appointment> results = repository.search(query);
+        metrics.recordSearch(results.size(), System.nanoTime() - started);
+        return results;
     }
 }
@@ -0,0 +1,44 @@
+package com.clinic;
+
+import java.util.function.Consumer;
+
+interface AppointmentStore extends AutoCloseable {
+    /** The highest ID any store accepts. IDs are shared across branches, so every store agrees on the bound. */
+    int MAX_ID = (1 << 30) - 1;
+
+    boolean insert(Appointment appointment);
+    Appointment get(int id);
+    void put(Appointment appointment);
+    int size();
+    int maxId();
+    void forEach(Consumer<Appointment> action);
+
+    /**
+     * Visits the slot of each stored appointment with an ID in {@code [fromId, toId)}, in ID order. Stores that keep
+     * raw fields override this to skip building the appointment and parsing its date and time.
+     */
+    default void forEachSlot(int fromId, int toId, SlotVisitor visitor) {
+        for (int id = fromId; id < toId; id++) {
+            Appointment appointment = get(id);
+            if (appointment != null) {
+                Appointment.Slot slot = appointment.getSlot();
+                visitor.visit(id, appointment.getPatient(), slot.dermatologist(),
+                        IsoDates.parseDate(slot.date()).toEpochDay(),
+                        SlotCalendar.slotOf(IsoDates.parseTime(slot.time())),
+                        appointment.isPaid() ? appointment.getTreatmentType() : null);
+            }
+        }
+    }
+
+    /** Blocks until every write made before the call is durable; stores that are not a file of record do nothing. */
+    default void sync() {
+    }
+
+    @Override
+    void close();
+
+    interface SlotVisitor {
+        /** {@code invoiced} is the treatment the appointment was paid for, or {@code null} while it is unpaid. */
+        void visit(int id, Patient patient, Dermatologist dermatologist, long epochDay, int slot, TreatmentType invoiced);
+    }
+}
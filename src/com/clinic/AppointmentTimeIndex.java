@@ -0,0 +1,143 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Appointment IDs ordered by time. Each doctor has a navigable map from epoch day to that day's slot table (slot of
+ * day to appointment ID), mirroring {@link SlotCalendar}, which already guarantees one appointment per doctor and
+ * slot. A doctor's agenda is one map lookup; sweeps across all doctors jump straight to the next day that has
+ * bookings, so range queries cost a logarithmic seek plus the appointments returned.
+ *
+ * <p>Positions in time are expressed as cursors, {@code (epochDay * SLOTS_PER_DAY + slot) << 32 | id}, which order
+ * appointments by time and then by ID.
+ */
+class AppointmentTimeIndex {
+    private static final int EMPTY = 0;
+
+    private final Map<Dermatologist, ConcurrentSkipListMap<Long, AtomicIntegerArray>> daysByDoctor = new ConcurrentHashMap<>();
+
+    public void add(int id, Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        add(id, dermatologist, date.toEpochDay(), SlotCalendar.slotOf(time));
+    }
+
+    void add(int id, Dermatologist dermatologist, long epochDay, int slot) {
+        daysByDoctor.computeIfAbsent(dermatologist, d -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(epochDay, day -> new AtomicIntegerArray(SlotCalendar.SLOTS_PER_DAY))
+                .set(slot, id);
+    }
+
+    public void remove(int id, Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        ConcurrentSkipListMap<Long, AtomicIntegerArray> days = daysByDoctor.get(dermatologist);
+        AtomicIntegerArray slots = days == null ? null : days.get(date.toEpochDay());
+        if (slots != null) {
+            slots.compareAndSet(SlotCalendar.slotOf(time), id, EMPTY);
+        }
+    }
+
+    /** IDs booked with the doctor on the given date, in time order. */
+    public int[] agenda(Dermatologist dermatologist, LocalDate date) {
+        ConcurrentSkipListMap<Long, AtomicIntegerArray> days = daysByDoctor.get(dermatologist);
+        AtomicIntegerArray slots = days == null ? null : days.get(date.toEpochDay());
+        if (slots == null) {
+            return new int[0];
+        }
+        int[] ids = new int[slots.length()];
+        int count = 0;
+        for (int slot = 0; slot < slots.length(); slot++) {
+            int id = slots.get(slot);
+            if (id != EMPTY) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /** Cursors strictly after {@code after} and strictly before {@code before}, in order, at most {@code limit}. */
+    public long[] between(long after, long before, int limit) {
+        long[] cursors = new long[Math.min(limit, 1024)];
+        int count = 0;
+        long lastDay = dayOf(before);
+        Long day = dayOf(after);
+        while (count < limit) {
+            day = nextBookedDay(day);
+            if (day == null || day > lastDay) {
+                break;
+            }
+            for (long cursor : cursorsOn(day)) {
+                if (cursor <= after) {
+                    continue;
+                }
+                if (cursor >= before || count == limit) {
+                    return Arrays.copyOf(cursors, count);
+                }
+                if (count == cursors.length) {
+                    cursors = Arrays.copyOf(cursors, Math.min(limit, cursors.length * 2));
+                }
+                cursors[count++] = cursor;
+            }
+            day++;
+        }
+        return Arrays.copyOf(cursors, count);
+    }
+
+    public static long cursor(LocalDate date, LocalTime time, int id) {
+        return (date.toEpochDay() * SlotCalendar.SLOTS_PER_DAY + SlotCalendar.slotOf(time)) << 32 | (id & 0xFFFF_FFFFL);
+    }
+
+    /** The cursor just before every appointment at or after the given moment. */
+    public static long cursorBefore(LocalDateTime moment) {
+        LocalTime time = moment.toLocalTime();
+        long seconds = time.toSecondOfDay() + (time.getNano() > 0 ? 1 : 0);
+        long slot = (seconds + SlotCalendar.SLOT_MINUTES * 60 - 1) / (SlotCalendar.SLOT_MINUTES * 60);
+        return (moment.toLocalDate().toEpochDay() * SlotCalendar.SLOTS_PER_DAY + slot) << 32;
+    }
+
+    public static int idOf(long cursor) {
+        return (int) cursor;
+    }
+
+    private static long dayOf(long cursor) {
+        return Math.floorDiv(cursor >> 32, SlotCalendar.SLOTS_PER_DAY);
+    }
+
+    private Long nextBookedDay(long day) {
+        Long next = null;
+        for (ConcurrentSkipListMap<Long, AtomicIntegerArray> days : daysByDoctor.values()) {
+            Long candidate = days.ceilingKey(day);
+            if (candidate != null && (next == null || candidate < next)) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    private long[] cursorsOn(long day) {
+        long[] cursors = new long[0];
+        int count = 0;
+        for (ConcurrentSkipListMap<Long, AtomicIntegerArray> days : daysByDoctor.values()) {
+            AtomicIntegerArray slots = days.get(day);
+            if (slots == null) {
+                continue;
+            }
+            for (int slot = 0; slot < slots.length(); slot++) {
+                int id = slots.get(slot);
+                if (id != EMPTY) {
+                    if (count == cursors.length) {
+                        cursors = Arrays.copyOf(cursors, Math.max(16, count * 2));
+                    }
+                    cursors[count++] = (day * SlotCalendar.SLOTS_PER_DAY + slot) << 32 | (id & 0xFFFF_FFFFL);
+                }
+            }
+        }
+        cursors = Arrays.copyOf(cursors, count);
+        Arrays.sort(cursors);
+        return cursors;
+    }
+}
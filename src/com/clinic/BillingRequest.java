@@ -0,0 +1,3 @@
+package com.clinic;
+
+record BillingRequest(int appointmentId, TreatmentType treatmentType) {}
@@ -0,0 +1,32 @@
+package com.clinic;
+
+import java.util.List;
+
+class BillingRun {
+    private final List<Invoice> invoices;
+    private final List<String> rejected;
+    private final long totalCents;
+    private final long elapsedNanos;
+
+    public BillingRun(List<Invoice> invoices, List<String> rejected, long totalCents, long elapsedNanos) {
+        this.invoices = List.copyOf(invoices);
+        this.rejected = List.copyOf(rejected);
+        this.totalCents = totalCents;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<Invoice> getInvoices() { return invoices; }
+    public List<String> getRejected() { return rejected; }
+    public long getTotalCents() { return totalCents; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getInvoicesPerSecond() {
+        return elapsedNanos == 0 ? 0 : invoices.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Billed %d appointments, LKR %s total, %d rejected, %.1f ms (%.0f invoices/s)".formatted(
+                invoices.size(), Money.format(totalCents), rejected.size(), elapsedNanos / 1_000_000.0, getInvoicesPerSecond());
+    }
+}
@@ -0,0 +1,6 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+record BookingRequest(Patient patient, Dermatologist dermatologist, LocalDate date, LocalTime time) {}
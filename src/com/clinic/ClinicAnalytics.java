@@ -0,0 +1,149 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Running revenue and utilization aggregates per day, doctor and treatment type. The repository applies every
+ * booking, reschedule and payment as a constant-time delta, so reports cost one lookup per day and doctor no matter
+ * how many appointments exist. Revenue is attributed to the appointment's date and doctor, as invoices are.
+ *
+ * <p>On open the repository rebuilds the aggregates by passing every stored slot to {@link #onLoaded}, in the same
+ * scan that rebuilds its other indexes, before it accepts writes.
+ */
+class ClinicAnalytics {
+    private static final int TREATMENTS = TreatmentType.values().length;
+
+    private final Map<Long, Map<Dermatologist, DoctorDay>> days = new ConcurrentHashMap<>();
+
+    public void onBooked(Appointment appointment, LocalDate date) {
+        add(days, appointment.getDermatologist(), date.toEpochDay(), appointment.isPaid() ? appointment.getTreatmentType() : null);
+    }
+
+    public void onMoved(Appointment appointment, Dermatologist fromDermatologist, LocalDate fromDate, Dermatologist toDermatologist, LocalDate toDate) {
+        Map<Long, Map<Dermatologist, DoctorDay>> current = days;
+        DoctorDay from = doctorDay(current, fromDermatologist, fromDate);
+        DoctorDay to = doctorDay(current, toDermatologist, toDate);
+        from.bookedSlots.decrementAndGet();
+        to.bookedSlots.incrementAndGet();
+        if (appointment.isPaid() && appointment.getTreatmentType() != null) {
+            from.addInvoice(appointment.getTreatmentType(), -1);
+            to.addInvoice(appointment.getTreatmentType(), 1);
+        }
+    }
+
+    /** Records a payment; {@code previous} is the treatment already invoiced for the appointment, if any. */
+    public void onPaid(Appointment appointment, LocalDate date, TreatmentType previous, TreatmentType treatmentType) {
+        if (previous == treatmentType) {
+            return;
+        }
+        DoctorDay doctorDay = doctorDay(days, appointment.getDermatologist(), date);
+        if (previous != null) {
+            doctorDay.addInvoice(previous, -1);
+        }
+        doctorDay.addInvoice(treatmentType, 1);
+    }
+
+    /** Replaces the aggregates with ones recomputed in parallel from every appointment in the store. */
+    /** Counts an appointment already in the store; {@code invoiced} is its treatment, or {@code null} while unpaid. */
+    public void onLoaded(Dermatologist dermatologist, long epochDay, TreatmentType invoiced) {
+        add(days, dermatologist, epochDay, invoiced);
+    }
+
+    public long revenueCents(LocalDate date) {
+        long total = 0;
+        for (DoctorDay doctorDay : doctorDays(date).values()) {
+            total += doctorDay.revenueCents();
+        }
+        return total;
+    }
+
+    /** Revenue, invoice counts and slot utilization from {@code from} to {@code to} inclusive. */
+    public StringBuilder appendReport(StringBuilder out, List<Dermatologist> dermatologists, LocalDate from, LocalDate to) {
+        long[] revenueByTreatment = new long[TREATMENTS];
+        long[] invoicesByTreatment = new long[TREATMENTS];
+        long[] revenueByDoctor = new long[dermatologists.size()];
+        long[] bookedByDoctor = new long[dermatologists.size()];
+        long[] workingByDoctor = new long[dermatologists.size()];
+
+        out.append("analytics ").append(from).append(" .. ").append(to).append('\n');
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<Dermatologist, DoctorDay> doctorDays = doctorDays(date);
+            long dayRevenue = 0;
+            for (int i = 0; i < dermatologists.size(); i++) {
+                workingByDoctor[i] += SlotCalendar.workingSlots(dermatologists.get(i), date);
+                DoctorDay doctorDay = doctorDays.get(dermatologists.get(i));
+                if (doctorDay == null) {
+                    continue;
+                }
+                bookedByDoctor[i] += doctorDay.bookedSlots.get();
+                for (int type = 0; type < TREATMENTS; type++) {
+                    revenueByTreatment[type] += doctorDay.revenueCents.get(type);
+                    invoicesByTreatment[type] += doctorDay.invoices.get(type);
+                }
+                revenueByDoctor[i] += doctorDay.revenueCents();
+                dayRevenue += doctorDay.revenueCents();
+            }
+            if (dayRevenue != 0) {
+                Money.appendTo(out.append("day ").append(date).append(" LKR "), dayRevenue).append('\n');
+            }
+        }
+
+        long total = 0;
+        for (TreatmentType type : TreatmentType.values()) {
+            total += revenueByTreatment[type.ordinal()];
+            Money.appendTo(out.append("treatment ").append(type.name()).append(" invoices=").append(invoicesByTreatment[type.ordinal()])
+                    .append(" LKR "), revenueByTreatment[type.ordinal()]).append('\n');
+        }
+        for (int i = 0; i < dermatologists.size(); i++) {
+            double utilization = workingByDoctor[i] == 0 ? 0 : 100.0 * bookedByDoctor[i] / workingByDoctor[i];
+            Money.appendTo(out.append(String.format("doctor %-14s slots=%d/%d utilization=%.1f%% LKR ", dermatologists.get(i).getName(),
+                    bookedByDoctor[i], workingByDoctor[i], utilization)), revenueByDoctor[i]).append('\n');
+        }
+        return Money.appendTo(out.append("revenue TOTAL LKR "), total).append('\n');
+    }
+
+    private Map<Dermatologist, DoctorDay> doctorDays(LocalDate date) {
+        return days.getOrDefault(date.toEpochDay(), Map.of());
+    }
+
+    private static void add(Map<Long, Map<Dermatologist, DoctorDay>> days, Dermatologist dermatologist, long epochDay, TreatmentType invoiced) {
+        DoctorDay doctorDay = doctorDay(days, dermatologist, epochDay);
+        doctorDay.bookedSlots.incrementAndGet();
+        if (invoiced != null) {
+            doctorDay.addInvoice(invoiced, 1);
+        }
+    }
+
+    private static DoctorDay doctorDay(Map<Long, Map<Dermatologist, DoctorDay>> days, Dermatologist dermatologist, LocalDate date) {
+        return doctorDay(days, dermatologist, date.toEpochDay());
+    }
+
+    private static DoctorDay doctorDay(Map<Long, Map<Dermatologist, DoctorDay>> days, Dermatologist dermatologist, long epochDay) {
+        return days.computeIfAbsent(epochDay, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(dermatologist, k -> new DoctorDay());
+    }
+
+    private static final class DoctorDay {
+        final AtomicInteger bookedSlots = new AtomicInteger();
+        final AtomicLongArray invoices = new AtomicLongArray(TREATMENTS);
+        final AtomicLongArray revenueCents = new AtomicLongArray(TREATMENTS);
+
+        void addInvoice(TreatmentType treatmentType, int count) {
+            invoices.addAndGet(treatmentType.ordinal(), count);
+            revenueCents.addAndGet(treatmentType.ordinal(), count * Invoice.totalCents(treatmentType));
+        }
+
+        long revenueCents() {
+            long total = 0;
+            for (int i = 0; i < TREATMENTS; i++) {
+                total += revenueCents.get(i);
+            }
+            return total;
+        }
+    }
+}
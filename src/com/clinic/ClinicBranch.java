@@ -0,0 +1,25 @@
+package com.clinic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+record ClinicBranch(String name, DermatologistRoster roster) {
+    /** Branches named in a comma-separated list, each staffed with its own copy of the default roster. */
+    public static List<ClinicBranch> parse(String names) {
+        List<ClinicBranch> branches = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                branches.add(new ClinicBranch(name.strip(), DermatologistRoster.defaultRoster()));
+            }
+        }
+        if (branches.isEmpty()) {
+            throw new IllegalArgumentException("At least one branch is required");
+        }
+        return branches;
+    }
+
+    public String directoryName() {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+}
@@ -0,0 +1,318 @@
+package com.clinic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP front end for the booking, search, reschedule and invoice operations. Each request runs on its own
+ * virtual thread when the runtime supports them, falling back to a cached platform thread pool on older JDKs.
+ *
+ * <pre>
+ * POST /appointments                      branch, nic, name, email, phone, doctor, date, time
+ * GET  /appointments?q=...                search every branch by patient name, NIC or appointment ID
+ * POST /appointments/{id}/reschedule      doctor, date, time (within the owning branch)
+ * POST /appointments/{id}/invoice         treatment
+ * GET  /patients/{nic}/appointments       history across all branches
+ * GET  /agenda?doctor=&date=yyyy-MM-dd    one doctor's appointments for the day, in time order
+ * GET  /no-shows?date=yyyy-MM-dd          unpaid appointments already past their start time
+ * GET  /revenue?date=yyyy-MM-dd           invoiced revenue per branch
+ * GET  /analytics?from=&to=               revenue and utilization report per branch (to defaults to from)
+ * GET  /metrics                           plain-text metrics dump per branch
+ * </pre>
+ *
+ * Request parameters are form-encoded; responses are plain-text receipts. {@code branch} defaults to the first branch.
+ */
+class ClinicHttpServer implements AutoCloseable {
+    private final ShardedClinic clinic;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ClinicHttpServer(ShardedClinic clinic, int port) throws IOException {
+        this.clinic = clinic;
+        this.executor = requestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/appointments", guarded(this::handle));
+        server.createContext("/patients", guarded(this::handlePatients));
+        server.createContext("/agenda", guarded(this::agenda));
+        server.createContext("/no-shows", guarded(this::agenda));
+        server.createContext("/revenue", guarded(this::revenue));
+        server.createContext("/analytics", guarded(this::analytics));
+        server.createContext("/metrics", guarded(this::metrics));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Closes the exchange after the handler. Malformed numbers and dates are answered with 400 and any other failure
+     * with 500, as long as no status has been sent yet.
+     */
+    private static HttpHandler guarded(HttpHandler handler) {
+        return exchange -> {
+            try (exchange) {
+                try {
+                    handler.handle(exchange);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    respond(exchange, 400, "Invalid request: " + e.getMessage() + "\n");
+                } catch (RuntimeException e) {
+                    System.err.println(MessageFormatter.error("Request " + exchange.getRequestURI() + " failed: " + e));
+                    if (exchange.getResponseCode() != -1) {
+                        throw e;
+                    }
+                    respond(exchange, 500, "Internal error\n");
+                }
+            }
+        };
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+        if (method.equals("POST")) {
+            params.putAll(parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+        }
+
+        if (path.length == 2 && method.equals("POST")) {
+            book(exchange, params);
+        } else if (path.length == 2 && method.equals("GET")) {
+            search(exchange, params.getOrDefault("q", ""));
+        } else if (path.length == 4 && method.equals("POST") && path[3].equals("reschedule")) {
+            reschedule(exchange, Integer.parseInt(path[2]), params);
+        } else if (path.length == 4 && method.equals("POST") && path[3].equals("invoice")) {
+            invoice(exchange, Integer.parseInt(path[2]), params);
+        } else {
+            respond(exchange, 404, "Unknown endpoint\n");
+        }
+    }
+
+    private void handlePatients(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        if (path.length != 4 || !path[3].equals("appointments") || !exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 404, "Unknown endpoint\n");
+            return;
+        }
+        StringBuilder body = new StringBuilder();
+        for (Appointment appointment : clinic.patientHistory(path[2])) {
+            ReceiptRenderer.ASCII.appendTo(body, appointment);
+        }
+        respond(exchange, 200, body.toString());
+    }
+
+    private void agenda(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+        ClinicShard shard = params.containsKey("branch") ? clinic.getShard(params.get("branch")) : clinic.getShards().get(0);
+        if (shard == null) {
+            respond(exchange, 404, "Unknown branch\n");
+            return;
+        }
+        AppointmentService appointmentService = shard.getAppointmentService();
+        LocalDate date = IsoDates.parseDate(params.getOrDefault("date", ""));
+        List<Appointment> appointments;
+        if (exchange.getHttpContext().getPath().equals("/no-shows")) {
+            appointments = appointmentService.getNoShows(date);
+        } else {
+            Dermatologist dermatologist = appointmentService.findDermatologist(params.getOrDefault("doctor", ""));
+            if (dermatologist == null) {
+                respond(exchange, 404, "Unknown doctor\n");
+                return;
+            }
+            appointments = appointmentService.getAgenda(dermatologist, date);
+        }
+        StringBuilder body = new StringBuilder();
+        for (Appointment appointment : appointments) {
+            ReceiptRenderer.ASCII.appendTo(body, appointment);
+        }
+        respond(exchange, 200, body.toString());
+    }
+
+    private void revenue(HttpExchange exchange) throws IOException {
+        LocalDate date = IsoDates.parseDate(parseForm(exchange.getRequestURI().getRawQuery()).getOrDefault("date", ""));
+        StringBuilder body = new StringBuilder();
+        long total = 0;
+        for (Map.Entry<String, Long> branch : clinic.dailyRevenueCents(date).entrySet()) {
+            Money.appendTo(body.append(branch.getKey()).append(" LKR "), branch.getValue()).append('\n');
+            total += branch.getValue();
+        }
+        respond(exchange, 200, Money.appendTo(body.append("Total LKR "), total).append('\n').toString());
+    }
+
+    private void analytics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET") || !exchange.getRequestURI().getPath().equals("/analytics")) {
+            respond(exchange, 404, "Unknown endpoint\n");
+            return;
+        }
+        Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+        LocalDate from = IsoDates.parseDate(params.getOrDefault("from", ""));
+        LocalDate to = params.containsKey("to") ? IsoDates.parseDate(params.get("to")) : from;
+        if (to.isBefore(from)) {
+            respond(exchange, 400, "Invalid request: to is before from\n");
+            return;
+        }
+        StringBuilder body = new StringBuilder();
+        for (ClinicShard shard : clinic.getShards()) {
+            shard.getAppointmentService().appendAnalyticsReport(body.append("# branch ").append(shard.getBranch().name()).append('\n'), from, to);
+        }
+        respond(exchange, 200, body.toString());
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (ClinicShard shard : clinic.getShards()) {
+            shard.getMetrics().appendTo(body.append("# branch ").append(shard.getBranch().name()).append('\n'));
+        }
+        respond(exchange, 200, body.toString());
+    }
+
+    private void book(HttpExchange exchange, Map<String, String> params) throws IOException {
+        ClinicShard shard = params.containsKey("branch") ? clinic.getShard(params.get("branch")) : clinic.getShards().get(0);
+        if (shard == null) {
+            respond(exchange, 404, "Unknown branch\n");
+            return;
+        }
+        AppointmentService appointmentService = shard.getAppointmentService();
+        Patient patient = appointmentService.findPatient(params.getOrDefault("nic", ""));
+        if (patient == null) {
+            patient = new Patient(params.get("nic"), params.get("name"), params.get("email"), params.get("phone"));
+            List<ValidationError> errors = InputValidator.validateAll(List.of(patient));
+            if (!errors.isEmpty()) {
+                respond(exchange, 400, errors + "\n");
+                return;
+            }
+        }
+        TimeSlot slot = parseSlot(appointmentService, params);
+        if (slot == null) {
+            respond(exchange, 400, "Unknown doctor or missing date/time\n");
+            return;
+        }
+        respond(exchange, appointmentService.book(new BookingRequest(patient, slot.dermatologist(), slot.date(), slot.time())), 201);
+    }
+
+    private void search(HttpExchange exchange, String query) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (Appointment appointment : clinic.search(query)) {
+            ReceiptRenderer.ASCII.appendTo(body, appointment);
+        }
+        respond(exchange, 200, body.toString());
+    }
+
+    private void reschedule(HttpExchange exchange, int appointmentId, Map<String, String> params) throws IOException {
+        ClinicShard shard = clinic.findShardOwning(appointmentId);
+        if (shard == null) {
+            respond(exchange, 404, "Appointment not found.\n");
+            return;
+        }
+        AppointmentService appointmentService = shard.getAppointmentService();
+        TimeSlot slot = parseSlot(appointmentService, params);
+        if (slot == null) {
+            respond(exchange, 400, "Unknown doctor or missing date/time\n");
+            return;
+        }
+        respond(exchange, appointmentService.reschedule(new RescheduleRequest(appointmentId, slot.dermatologist(), slot.date(), slot.time())), 200);
+    }
+
+    private void invoice(HttpExchange exchange, int appointmentId, Map<String, String> params) throws IOException {
+        TreatmentType treatmentType;
+        try {
+            treatmentType = TreatmentType.valueOf(params.getOrDefault("treatment", "").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "Unknown treatment type\n");
+            return;
+        }
+        ClinicShard shard = clinic.findShardOwning(appointmentId);
+        if (shard == null) {
+            respond(exchange, 404, "Appointment not found.\n");
+            return;
+        }
+        ServiceResult<Invoice> result = shard.getInvoiceService().generateInvoice(new BillingRequest(appointmentId, treatmentType));
+        if (!result.isSuccess()) {
+            respond(exchange, statusOf(result.outcome()), result.message() + "\n");
+            return;
+        }
+        respond(exchange, 200, ReceiptRenderer.ASCII.render(result.value()));
+    }
+
+    private static TimeSlot parseSlot(AppointmentService appointmentService, Map<String, String> params) {
+        Dermatologist dermatologist = appointmentService.findDermatologist(params.getOrDefault("doctor", ""));
+        if (dermatologist == null || !params.containsKey("date") || !params.containsKey("time")) {
+            return null;
+        }
+        return new TimeSlot(dermatologist, IsoDates.parseDate(params.get("date")), IsoDates.parseTime(params.get("time")));
+    }
+
+    private static void respond(HttpExchange exchange, ServiceResult<Appointment> result, int successStatus) throws IOException {
+        if (!result.isSuccess()) {
+            respond(exchange, statusOf(result.outcome()), result.message() + "\n");
+            return;
+        }
+        respond(exchange, successStatus, ReceiptRenderer.ASCII.render(result.value()));
+    }
+
+    private static int statusOf(Outcome outcome) {
+        return switch (outcome) {
+            case SUCCESS -> 200;
+            case NOT_FOUND -> 404;
+            case INVALID -> 400;
+            case SLOT_UNAVAILABLE -> 409;
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseForm(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
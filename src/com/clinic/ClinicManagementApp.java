@@ -1,11 +1,51 @@
 package com.clinic;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 public class ClinicManagementApp {
-    public static void main(String[] args) {
-        AppointmentRepository repository = new AppointmentRepository();
-        AppointmentService appointmentService = new AppointmentService(repository);
-        InvoiceService invoiceService = new InvoiceService(repository);
-        ClinicSystem clinicSystem = new ClinicSystem(appointmentService, invoiceService);
+    public static void main(String[] args) throws IOException {
+        // The JDK server writes headers and body separately; without TCP_NODELAY, small responses wait on delayed ACKs.
+        // It reads the property once, when its config class loads, so it has to be set before any server exists.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        List<ClinicBranch> branches = ClinicBranch.parse(System.getProperty("clinic.branches", "Main"));
+        Path dataDirectory = Path.of(System.getProperty("clinic.data.dir", "clinic-data"));
+        ShardedClinic.Storage storage = ShardedClinic.Storage.valueOf(System.getProperty("clinic.store", "log").toUpperCase(Locale.ROOT));
+        ShardedClinic clinic = ShardedClinic.open(dataDirectory, branches, storage);
+        ReminderNotifier notifier = new FileReminderNotifier(dataDirectory.resolve("reminders.log"));
+        Duration leadTime = Duration.ofHours(Long.getLong("clinic.reminder.lead.hours", 24));
+        List<ReminderService> reminders = new ArrayList<>();
+        for (ClinicShard shard : clinic.getShards()) {
+            shard.getMetrics().registerMBean(shard.getBranch().name());
+            ReminderService reminder = new ReminderService(shard.getRepository(), notifier, leadTime);
+            reminder.start(Duration.ofMinutes(SlotCalendar.SLOT_MINUTES));
+            reminders.add(reminder);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reminders.forEach(ReminderService::close);
+            clinic.close();
+        }));
+
+        if (args.length > 0 && args[0].equals("--headless")) {
+            ClinicHttpServer server = new ClinicHttpServer(clinic, args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            server.start();
+            System.out.println(MessageFormatter.info("Clinic booking API listening on port " + server.getPort()));
+            return;
+        }
+
+        String branch = System.getProperty("clinic.branch", branches.get(0).name());
+        ClinicShard shard = clinic.getShard(branch);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown branch " + branch);
+        }
+        ClinicSystem clinicSystem = new ClinicSystem(shard.getAppointmentService(), shard.getInvoiceService(),
+                new DataTransferService(shard.getRepository(), shard.getBranch().roster()));
         clinicSystem.run();
     }
 }
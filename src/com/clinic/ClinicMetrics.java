@@ -0,0 +1,157 @@
+package com.clinic;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Operational counters and latency histograms for the booking, search, update and invoice paths. Recording is
+ * lock-free and allocation-free so it can sit on every request; reading is done by the text dump and over JMX.
+ */
+class ClinicMetrics implements ClinicMetricsMBean {
+    private static final int BOOKINGS = 0;
+    private static final int UPDATES = 1;
+    private static final int INVOICES = 2;
+    private static final int COUNTERS_PER_DOCTOR = 3;
+
+    private final DermatologistRoster roster;
+    private final LongSupplier repositorySize;
+    private final LatencyHistogram bookingLatency = new LatencyHistogram();
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private final LatencyHistogram updateLatency = new LatencyHistogram();
+    private final LatencyHistogram invoiceLatency = new LatencyHistogram();
+    private final AtomicLongArray doctorCounters;
+    private final AtomicLongArray revenueCents = new AtomicLongArray(TreatmentType.values().length);
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchHits = new AtomicLong();
+
+    public ClinicMetrics(DermatologistRoster roster, LongSupplier repositorySize) {
+        this.roster = roster;
+        this.repositorySize = repositorySize;
+        this.doctorCounters = new AtomicLongArray(roster.getDermatologists().size() * COUNTERS_PER_DOCTOR);
+    }
+
+    public void recordBooking(Dermatologist dermatologist, boolean booked, long nanos) {
+        bookingLatency.record(nanos);
+        if (booked) {
+            increment(dermatologist, BOOKINGS);
+        }
+    }
+
+    public void recordUpdate(Dermatologist dermatologist, boolean updated, long nanos) {
+        updateLatency.record(nanos);
+        if (updated) {
+            increment(dermatologist, UPDATES);
+        }
+    }
+
+    public void recordSearch(int results, long nanos) {
+        searchLatency.record(nanos);
+        searches.incrementAndGet();
+        if (results > 0) {
+            searchHits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts an issued invoice. Revenue follows {@link ClinicAnalytics}: re-invoicing an appointment replaces the
+     * {@code previous} treatment's revenue instead of adding to it.
+     */
+    public void recordInvoice(Invoice invoice, TreatmentType previous) {
+        increment(invoice.getAppointment().getDermatologist(), INVOICES);
+        if (previous == invoice.getTreatmentType()) {
+            return;
+        }
+        if (previous != null) {
+            revenueCents.addAndGet(previous.ordinal(), -Invoice.totalCents(previous));
+        }
+        revenueCents.addAndGet(invoice.getTreatmentType().ordinal(), invoice.calculateTotal());
+    }
+
+    public void recordInvoiceLatency(long nanos) {
+        invoiceLatency.record(nanos);
+    }
+
+    private void increment(Dermatologist dermatologist, int counter) {
+        int index = roster.indexOf(dermatologist);
+        if (index >= 0) {
+            doctorCounters.incrementAndGet(index * COUNTERS_PER_DOCTOR + counter);
+        }
+    }
+
+    private long total(int counter) {
+        long total = 0;
+        for (int i = counter; i < doctorCounters.length(); i += COUNTERS_PER_DOCTOR) {
+            total += doctorCounters.get(i);
+        }
+        return total;
+    }
+
+    @Override public long getRepositorySize() { return repositorySize.getAsLong(); }
+    @Override public long getBookingCount() { return total(BOOKINGS); }
+    @Override public long getUpdateCount() { return total(UPDATES); }
+    @Override public long getInvoiceCount() { return total(INVOICES); }
+    @Override public long getSearchCount() { return searches.get(); }
+    @Override public long getBookingP99Micros() { return bookingLatency.percentile(0.99) / 1000; }
+    @Override public long getSearchP99Micros() { return searchLatency.percentile(0.99) / 1000; }
+    @Override public long getUpdateP99Micros() { return updateLatency.percentile(0.99) / 1000; }
+    @Override public long getInvoiceP99Micros() { return invoiceLatency.percentile(0.99) / 1000; }
+
+    @Override
+    public long getRevenueCents() {
+        long total = 0;
+        for (int i = 0; i < revenueCents.length(); i++) {
+            total += revenueCents.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public double getSearchHitRate() {
+        long total = searches.get();
+        return total == 0 ? 0 : (double) searchHits.get() / total;
+    }
+
+    public void registerMBean(String branch) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.clinic:type=ClinicMetrics,branch=" + ObjectName.quote(branch)));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register clinic metrics with JMX", e);
+        }
+    }
+
+    @Override
+    public String dump() {
+        return appendTo(new StringBuilder(1024)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out) {
+        out.append("repository.size ").append(getRepositorySize()).append('\n');
+        out.append(String.format("%-12s %10s %10s %10s %10s %10s%n", "latency(us)", "count", "mean", "p50", "p99", "max"));
+        appendLatency(out, "book", bookingLatency);
+        appendLatency(out, "search", searchLatency);
+        appendLatency(out, "update", updateLatency);
+        appendLatency(out, "invoice", invoiceLatency);
+
+        out.append(String.format("search.hitRate %.3f (%d of %d)%n", getSearchHitRate(), searchHits.get(), searches.get()));
+        List<Dermatologist> dermatologists = roster.getDermatologists();
+        for (int i = 0; i < dermatologists.size(); i++) {
+            int base = i * COUNTERS_PER_DOCTOR;
+            out.append(String.format("doctor %-14s bookings=%d updates=%d invoices=%d%n", dermatologists.get(i).getName(),
+                    doctorCounters.get(base + BOOKINGS), doctorCounters.get(base + UPDATES), doctorCounters.get(base + INVOICES)));
+        }
+        for (TreatmentType type : TreatmentType.values()) {
+            Money.appendTo(out.append("revenue ").append(type.name()).append(" LKR "), revenueCents.get(type.ordinal())).append('\n');
+        }
+        return Money.appendTo(out.append("revenue TOTAL LKR "), getRevenueCents()).append('\n');
+    }
+
+    private static void appendLatency(StringBuilder out, String name, LatencyHistogram histogram) {
+        out.append(String.format("%-12s %10d %10d %10d %10d %10d%n", name, histogram.getCount(), histogram.getMeanNanos() / 1000,
+                histogram.percentile(0.5) / 1000, histogram.percentile(0.99) / 1000, histogram.getMaxNanos() / 1000));
+    }
+}
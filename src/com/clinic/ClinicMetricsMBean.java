@@ -0,0 +1,19 @@
+package com.clinic;
+
+/**
+ * JMX view of {@link ClinicMetrics}, registered as {@code com.clinic:type=ClinicMetrics,branch="<name>"}.
+ */
+public interface ClinicMetricsMBean {
+    long getRepositorySize();
+    long getBookingCount();
+    long getUpdateCount();
+    long getInvoiceCount();
+    long getRevenueCents();
+    long getSearchCount();
+    double getSearchHitRate();
+    long getBookingP99Micros();
+    long getSearchP99Micros();
+    long getUpdateP99Micros();
+    long getInvoiceP99Micros();
+    String dump();
+}
@@ -0,0 +1,32 @@
+package com.clinic;
+
+/**
+ * One branch's partition of the clinic: its own repository, write-ahead log, slot calendar, indexes, metrics and
+ * services. Nothing is shared with other shards except the appointment ID sequence.
+ */
+class ClinicShard implements AutoCloseable {
+    private final ClinicBranch branch;
+    private final AppointmentRepository repository;
+    private final ClinicMetrics metrics;
+    private final AppointmentService appointmentService;
+    private final InvoiceService invoiceService;
+
+    public ClinicShard(ClinicBranch branch, AppointmentRepository repository) {
+        this.branch = branch;
+        this.repository = repository;
+        this.metrics = new ClinicMetrics(branch.roster(), repository::size);
+        this.appointmentService = new AppointmentService(repository, branch.roster(), metrics);
+        this.invoiceService = new InvoiceService(repository, metrics);
+    }
+
+    public ClinicBranch getBranch() { return branch; }
+    public AppointmentRepository getRepository() { return repository; }
+    public ClinicMetrics getMetrics() { return metrics; }
+    public AppointmentService getAppointmentService() { return appointmentService; }
+    public InvoiceService getInvoiceService() { return invoiceService; }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+}
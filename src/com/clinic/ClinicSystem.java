@@ -1,21 +1,32 @@
 package com.clinic;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
 
 class ClinicSystem {
+    private static final int PAGE_SIZE = 5;
+
     private final AppointmentService appointmentService;
     private final InvoiceService invoiceService;
+    private final DataTransferService dataTransferService;
     private final Scanner scanner = new Scanner(System.in);
+    private final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 14));
+    private final StringBuilder receipt = new StringBuilder(512);
 
-    public ClinicSystem(AppointmentService appointmentService, InvoiceService invoiceService) {
+    public ClinicSystem(AppointmentService appointmentService, InvoiceService invoiceService, DataTransferService dataTransferService) {
         this.appointmentService = appointmentService;
         this.invoiceService = invoiceService;
+        this.dataTransferService = dataTransferService;
     }
 
     public void run() {
@@ -25,151 +36,307 @@ class ClinicSystem {
     }
 
     private void showMenu() {
-        System.out.println("\n--- Clinic Management System ---");
-        System.out.println(MessageFormatter.info("1. Book Appointment"));
-        System.out.println(MessageFormatter.info("2. View Appointments"));
-        System.out.println(MessageFormatter.info("3. Search Appointment"));
-        System.out.println(MessageFormatter.info("4. Update Appointment"));
-        System.out.println(MessageFormatter.info("5. Generate Invoice"));
-        System.out.println(MessageFormatter.info("6. Exit"));
-        System.out.print(MessageFormatter.prompt("Choose an option: "));
+        out.println("\n--- Clinic Management System ---");
+        out.println(MessageFormatter.info("1. Book Appointment"));
+        out.println(MessageFormatter.info("2. View Appointments"));
+        out.println(MessageFormatter.info("3. Search Appointment"));
+        out.println(MessageFormatter.info("4. Update Appointment"));
+        out.println(MessageFormatter.info("5. Generate Invoice"));
+        out.println(MessageFormatter.info("6. End-of-Day Billing (CSV)"));
+        out.println(MessageFormatter.info("7. Find First Free Slot (Walk-in)"));
+        out.println(MessageFormatter.info("8. Show Metrics"));
+        out.println(MessageFormatter.info("9. Import / Export Data"));
+        out.println(MessageFormatter.info("10. Doctor's Daily Agenda"));
+        out.println(MessageFormatter.info("11. Revenue & Utilization Report"));
+        out.println(MessageFormatter.info("12. Exit"));
+        out.print(MessageFormatter.prompt("Choose an option: "));
 
         try {
-            int choice = Integer.parseInt(scanner.nextLine());
+            int choice = Integer.parseInt(readLine());
             switch (choice) {
                 case 1 -> bookAppointment();
                 case 2 -> viewAppointments();
                 case 3 -> searchAppointment();
                 case 4 -> updateAppointment();
                 case 5 -> generateInvoice();
-                case 6 -> {
-                    System.out.println("Exiting system. Goodbye!");
+                case 6 -> runBillingBatch();
+                case 7 -> findFirstFreeSlot();
+                case 8 -> showMetrics();
+                case 9 -> transferData();
+                case 10 -> showAgenda();
+                case 11 -> showAnalytics();
+                case 12 -> {
+                    out.println("Exiting system. Goodbye!");
+                    out.flush();
                     System.exit(0);
                 }
-                default -> System.out.println(MessageFormatter.error("Invalid choice. Please try again."));
+                default -> out.println(MessageFormatter.error("Invalid choice. Please try again."));
             }
         } catch (NumberFormatException e) {
-            System.out.println(MessageFormatter.error("Invalid input. Please enter a number."));
+            out.println(MessageFormatter.error("Invalid input. Please enter a number."));
         }
     }
 
     private void bookAppointment() {
         String nic = promptInput("Enter NIC (minimum 9 characters): ", InputValidator::isValidNic);
-        String name = promptInput("Enter Name (minimum 4 characters): ", InputValidator::isValidName);
-        String email = promptInput("Enter Email Address: ", InputValidator::isValidEmail);
-        String phone = promptInput("Enter Phone Number (10 digits): ", InputValidator::isValidPhone);
+        Patient patient = appointmentService.findPatient(nic);
+        if (patient != null) {
+            out.println(MessageFormatter.info("Welcome back, " + patient.getName() + "."));
+        } else {
+            String name = promptInput("Enter Name (minimum 4 characters): ", InputValidator::isValidName);
+            String email = promptInput("Enter Email Address: ", InputValidator::isValidEmail);
+            String phone = promptInput("Enter Phone Number (10 digits): ", InputValidator::isValidPhone);
+            patient = new Patient(nic, name, email, phone);
+        }
+
+        TimeSlot slot = promptSlot("Please choose another date.");
+        if (slot == null) {
+            return;
+        }
 
-        Patient patient = new Patient(nic, name, email, phone);
+        out.println(MessageFormatter.info("The registration fee is LKR " + Money.format(Invoice.REGISTRATION_FEE_CENTS) + ". Do you confirm the payment? (yes/no)"));
+        String confirmation = readLine();
+        if (!confirmation.equalsIgnoreCase("yes")) {
+            out.println(MessageFormatter.error("Registration fee payment not confirmed. Appointment not booked."));
+            return;
+        }
 
+        ServiceResult<Appointment> result = appointmentService.book(new BookingRequest(patient, slot.dermatologist(), slot.date(), slot.time()));
+        if (result.isSuccess()) {
+            printReceipt(result.value());
+            out.println(MessageFormatter.success(result.message()));
+        } else {
+            out.println(MessageFormatter.error(result.message()));
+        }
+    }
+
+    private TimeSlot promptSlot(String noSlotsAdvice) {
         List<Dermatologist> dermatologists = appointmentService.getDermatologists();
-        System.out.println(MessageFormatter.info("Available Dermatologists:"));
+        out.println(MessageFormatter.info("Available Dermatologists:"));
         for (int i = 0; i < dermatologists.size(); i++) {
-            System.out.println((i + 1) + ". " + dermatologists.get(i).getName() + " (Available: " + dermatologists.get(i).getSchedule() + ")");
+            out.println((i + 1) + ". " + dermatologists.get(i).getName() + " (Available: " + dermatologists.get(i).getSchedule() + ")");
         }
 
-        int doctorChoice = promptNumericInput("Select a dermatologist (enter number): ", 1, dermatologists.size(), scanner) - 1;
+        int doctorChoice = promptNumericInput("Select a dermatologist (enter number): ", 1, dermatologists.size()) - 1;
         Dermatologist selectedDoctor = dermatologists.get(doctorChoice);
 
-        List<LocalDate> availableDates = generateNextAvailableDates(selectedDoctor.getAvailableDays(), 5);
-        System.out.println(MessageFormatter.info("Available Dates:"));
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<LocalDate> availableDates = appointmentService.getAvailableDates(selectedDoctor);
+        out.println(MessageFormatter.info("Available Dates:"));
         for (int i = 0; i < availableDates.size(); i++) {
-            System.out.println((i + 1) + ". " + availableDates.get(i).format(dateFormatter));
+            out.println((i + 1) + ". " + availableDates.get(i));
         }
 
-        int dateChoice = promptNumericInput("Select an available date by entering the corresponding number: ", 1, availableDates.size(), scanner) - 1;
+        int dateChoice = promptNumericInput("Select an available date by entering the corresponding number: ", 1, availableDates.size()) - 1;
         LocalDate appointmentDate = availableDates.get(dateChoice);
 
-        List<LocalTime> availableTimes = generateTimeSlots(selectedDoctor.getStartTime(), selectedDoctor.getEndTime(), 15);
-        System.out.println(MessageFormatter.info("Available Time Slots:"));
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        List<LocalTime> availableTimes = appointmentService.getAvailableTimeSlots(selectedDoctor, appointmentDate);
+        if (availableTimes.isEmpty()) {
+            out.println(MessageFormatter.error("No free time slots on that date. " + noSlotsAdvice));
+            return null;
+        }
+        out.println(MessageFormatter.info("Available Time Slots:"));
         for (int i = 0; i < availableTimes.size(); i++) {
-            System.out.println((i + 1) + ". " + availableTimes.get(i).format(timeFormatter));
+            out.println((i + 1) + ". " + availableTimes.get(i));
         }
 
-        int timeChoice = promptNumericInput("Select an available time slot by entering the corresponding number: ", 1, availableTimes.size(), scanner) - 1;
-        LocalTime appointmentTime = availableTimes.get(timeChoice);
-
-        System.out.println(MessageFormatter.info("The registration fee is LKR 500.00. Do you confirm the payment? (yes/no)"));
-        String confirmation = scanner.nextLine();
-        if (!confirmation.equalsIgnoreCase("yes")) {
-            System.out.println(MessageFormatter.error("Registration fee payment not confirmed. Appointment not booked."));
-            return;
-        }
+        int timeChoice = promptNumericInput("Select an available time slot by entering the corresponding number: ", 1, availableTimes.size()) - 1;
+        return new TimeSlot(selectedDoctor, appointmentDate, availableTimes.get(timeChoice));
+    }
 
-        Appointment appointment = new Appointment(patient, selectedDoctor, appointmentDate.format(dateFormatter), appointmentTime.format(timeFormatter));
-        appointmentService.bookAppointment(appointment);
+    private String readLine() {
+        out.flush();
+        return scanner.nextLine();
     }
 
     private String promptInput(String message, Validator validator) {
         String input;
         do {
-            System.out.print(MessageFormatter.prompt(message));
-            input = scanner.nextLine();
+            out.print(MessageFormatter.prompt(message));
+            input = readLine();
         } while (!validator.validate(input));
         return input;
     }
 
-    private int promptNumericInput(String message, int min, int max, Scanner scanner) {
+    private int promptNumericInput(String message, int min, int max) {
         int input;
         while (true) {
-            System.out.print(MessageFormatter.prompt(message));
+            out.print(MessageFormatter.prompt(message));
             try {
-                input = Integer.parseInt(scanner.nextLine());
+                input = Integer.parseInt(readLine());
                 if (input >= min && input <= max) break;
             } catch (NumberFormatException ignored) {}
-            System.out.println(MessageFormatter.error("Invalid choice. Please try again."));
+            out.println(MessageFormatter.error("Invalid choice. Please try again."));
         }
         return input;
     }
 
-    private List<LocalDate> generateNextAvailableDates(List<String> daysOfWeek, int numberOfDates) {
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate startDate = LocalDate.now();
-        int count = 0;
+    private void printReceipt(Appointment appointment) {
+        receipt.setLength(0);
+        out.append(ReceiptRenderer.EMOJI.appendTo(receipt, appointment)).println();
+    }
 
-        while (count < numberOfDates) {
-            for (String day : daysOfWeek) {
-                LocalDate nextDate = startDate.with(java.time.DayOfWeek.valueOf(day.toUpperCase()));
-                if (!nextDate.isBefore(startDate) && count < numberOfDates) {
-                    dates.add(nextDate);
-                    count++;
-                }
+    private void viewAppointments() {
+        out.println(MessageFormatter.info("1. All  2. Unpaid  3. Paid"));
+        int statusChoice = promptNumericInput("Filter by payment status: ", 1, 3);
+        AppointmentFilter filter = AppointmentFilter.all().withPaid(statusChoice == 1 ? null : statusChoice == 3);
+
+        out.println(MessageFormatter.info("List of Appointments:"));
+        int cursor = 1;
+        while (true) {
+            AppointmentPage page = appointmentService.viewAppointments(filter, cursor, PAGE_SIZE);
+            page.appointments().forEach(this::printReceipt);
+            if (!page.hasNext()) {
+                return;
             }
-            startDate = startDate.plusWeeks(1);
+            out.print(MessageFormatter.prompt("Press Enter for the next page or type 'q' to stop: "));
+            if (readLine().equalsIgnoreCase("q")) {
+                return;
+            }
+            cursor = page.nextCursor();
         }
-        return dates;
     }
 
-    private List<LocalTime> generateTimeSlots(LocalTime startTime, LocalTime endTime, int intervalMinutes) {
-        List<LocalTime> timeSlots = new ArrayList<>();
-        LocalTime time = startTime;
-        while (time.isBefore(endTime)) {
-            timeSlots.add(time);
-            time = time.plusMinutes(intervalMinutes);
+    private void searchAppointment() {
+        out.print(MessageFormatter.prompt("Enter Patient Name, NIC or Appointment ID to search: "));
+        String query = readLine();
+        appointmentService.searchAppointment(query).forEach(this::printReceipt);
+    }
+
+    private void updateAppointment() {
+        int appointmentId = promptNumericInput("Enter Appointment ID to update: ", 1, Integer.MAX_VALUE);
+        if (appointmentService.findAppointment(appointmentId) == null) {
+            out.println(MessageFormatter.error("Appointment not found."));
+            return;
         }
-        return timeSlots;
+        TimeSlot slot = promptSlot("Appointment not updated.");
+        if (slot == null) {
+            return;
+        }
+        ServiceResult<Appointment> result = appointmentService.reschedule(new RescheduleRequest(appointmentId, slot.dermatologist(), slot.date(), slot.time()));
+        out.println(result.isSuccess() ? MessageFormatter.success(result.message()) : MessageFormatter.error(result.message()));
     }
 
-    private void viewAppointments() {
-        System.out.println(MessageFormatter.info("List of Appointments:"));
-        appointmentService.viewAppointments().forEach(System.out::println);
+    private void generateInvoice() {
+        int appointmentId = promptNumericInput("Enter Appointment ID to generate invoice: ", 1, Integer.MAX_VALUE);
+        if (appointmentService.findAppointment(appointmentId) == null) {
+            out.println(MessageFormatter.error("Appointment not found."));
+            return;
+        }
+
+        out.println("Select Treatment Type:");
+        TreatmentType[] treatmentTypes = TreatmentType.values();
+        for (int i = 0; i < treatmentTypes.length; i++) {
+            out.println((i + 1) + ". " + treatmentTypes[i].name() + " (LKR " + Money.format(treatmentTypes[i].getPriceCents()) + ")");
+        }
+        int treatmentChoice = promptNumericInput("Select a treatment type (enter number): ", 1, treatmentTypes.length) - 1;
+
+        ServiceResult<Invoice> result = invoiceService.generateInvoice(new BillingRequest(appointmentId, treatmentTypes[treatmentChoice]));
+        if (result.isSuccess()) {
+            receipt.setLength(0);
+            out.append(ReceiptRenderer.EMOJI.appendTo(receipt, result.value())).println();
+        } else {
+            out.println(MessageFormatter.error(result.message()));
+        }
     }
 
-    private void searchAppointment() {
-        System.out.print(MessageFormatter.prompt("Enter Patient Name or Appointment ID to search: "));
-        String query = scanner.nextLine();
-        appointmentService.searchAppointment(query).forEach(System.out::println);
+    private void findFirstFreeSlot() {
+        TimeSlot slot = appointmentService.findFirstFreeSlot();
+        if (slot == null) {
+            out.println(MessageFormatter.error("No free slots in the next two weeks."));
+            return;
+        }
+        out.println(MessageFormatter.success("Next free slot: " + slot.dermatologist().getName() + " on " + slot.date() + " at " + slot.time()));
     }
 
-    private void updateAppointment() {
-        int appointmentId = promptNumericInput("Enter Appointment ID to update: ", 1, Integer.MAX_VALUE, scanner);
-        appointmentService.updateAppointment(appointmentId, scanner);
+    private void showAgenda() {
+        List<Dermatologist> dermatologists = appointmentService.getDermatologists();
+        for (int i = 0; i < dermatologists.size(); i++) {
+            out.println((i + 1) + ". " + dermatologists.get(i).getName());
+        }
+        Dermatologist dermatologist = dermatologists.get(promptNumericInput("Select a dermatologist (enter number): ", 1, dermatologists.size()) - 1);
+        LocalDate date = promptDate("Enter date (yyyy-MM-dd, leave blank for today): ", LocalDate.now());
+        if (date == null) {
+            return;
+        }
+        List<Appointment> agenda = appointmentService.getAgenda(dermatologist, date);
+        if (agenda.isEmpty()) {
+            out.println(MessageFormatter.info("No appointments for " + dermatologist.getName() + " on " + date + "."));
+            return;
+        }
+        agenda.forEach(this::printReceipt);
+        long noShows = appointmentService.getNoShows(date).stream().filter(appointment -> appointment.getDermatologist() == dermatologist).count();
+        if (noShows > 0) {
+            out.println(MessageFormatter.info(noShows + " unpaid appointment(s) already past their start time."));
+        }
     }
 
-    private void generateInvoice() {
-        int appointmentId = promptNumericInput("Enter Appointment ID to generate invoice: ", 1, Integer.MAX_VALUE, scanner);
-        invoiceService.generateInvoice(appointmentId);
+    private void showAnalytics() {
+        LocalDate from = promptDate("Report from (yyyy-MM-dd, leave blank for today): ", LocalDate.now());
+        LocalDate to = from == null ? null : promptDate("Report to (yyyy-MM-dd, leave blank for the same day): ", from);
+        if (to == null) {
+            return;
+        }
+        if (to.isBefore(from)) {
+            out.println(MessageFormatter.error("The end date is before the start date."));
+            return;
+        }
+        receipt.setLength(0);
+        out.append(appointmentService.appendAnalyticsReport(receipt, from, to));
     }
-}
 
+    private LocalDate promptDate(String message, LocalDate defaultDate) {
+        out.print(MessageFormatter.prompt(message));
+        String input = readLine().strip();
+        try {
+            return input.isEmpty() ? defaultDate : IsoDates.parseDate(input);
+        } catch (DateTimeParseException e) {
+            out.println(MessageFormatter.error("Invalid date."));
+            return null;
+        }
+    }
+
+    private void showMetrics() {
+        receipt.setLength(0);
+        out.append(appointmentService.getMetrics().appendTo(receipt));
+    }
+
+    private void runBillingBatch() {
+        out.print(MessageFormatter.prompt("Enter path of billing CSV (appointmentId,treatmentType): "));
+        String path = readLine().strip();
+        try {
+            BillingRun run = invoiceService.billFromCsv(Path.of(path));
+            run.getRejected().forEach(reason -> out.println(MessageFormatter.error(reason)));
+            out.println(MessageFormatter.success(run.toString()));
+            out.print(MessageFormatter.prompt("Enter path to export invoices for accounting (leave blank to skip): "));
+            String exportPath = readLine().strip();
+            if (!exportPath.isEmpty()) {
+                long rows = dataTransferService.exportInvoicesCsv(Path.of(exportPath), run.getInvoices());
+                out.println(MessageFormatter.success("Exported " + rows + " invoices to " + exportPath));
+            }
+        } catch (IOException | InvalidPathException e) {
+            out.println(MessageFormatter.error("Could not read billing file: " + e.getMessage()));
+        }
+    }
+
+    private void transferData() {
+        out.println(MessageFormatter.info("1. Import CSV  2. Import binary  3. Export CSV  4. Export binary  5. Export patients CSV"));
+        int choice = promptNumericInput("Choose an option: ", 1, 5);
+        out.print(MessageFormatter.prompt("Enter file path: "));
+        String path = readLine().strip();
+        try {
+            Path file = Path.of(path);
+            switch (choice) {
+                case 1, 2 -> {
+                    ImportReport report = choice == 1 ? dataTransferService.importCsv(file) : dataTransferService.importBinary(file);
+                    report.getErrors().forEach(reason -> out.println(MessageFormatter.error(reason)));
+                    out.println(MessageFormatter.success(report.toString()));
+                }
+                case 3 -> out.println(MessageFormatter.success("Exported " + dataTransferService.exportCsv(file) + " appointments to " + path));
+                case 4 -> out.println(MessageFormatter.success("Exported " + dataTransferService.exportBinary(file) + " appointments to " + path));
+                default -> out.println(MessageFormatter.success("Exported " + dataTransferService.exportPatientsCsv(file) + " patients to " + path));
+            }
+        } catch (IOException | InvalidPathException e) {
+            out.println(MessageFormatter.error("Data transfer failed: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader over a file channel. Records are parsed straight out of a fixed character buffer, so
+ * memory use is bounded by the longest record rather than the file size. Quoted fields may contain commas, doubled
+ * quotes and line breaks.
+ */
+class CsvReader implements Closeable {
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private final StringBuilder field = new StringBuilder(64);
+    private int position;
+    private int limit;
+    private long recordNumber;
+
+    public CsvReader(Path file) throws IOException {
+        this.reader = Channels.newReader(FileChannel.open(file, StandardOpenOption.READ), StandardCharsets.UTF_8.newDecoder(), BUFFER_CHARS);
+    }
+
+    /** Number of the record most recently returned by {@link #readRecord()}, starting at 1. */
+    public long getRecordNumber() { return recordNumber; }
+
+    /** Returns the next record's fields, or {@code null} at end of file. Blank lines are skipped. */
+    public List<String> readRecord() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == '\r' || c == '\n');
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(16);
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field in CSV record " + (recordNumber + 1));
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c < 0) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
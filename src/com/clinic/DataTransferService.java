@@ -0,0 +1,379 @@
+package com.clinic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import and export of appointments, patients and invoices. CSV files are streamed through {@link CsvReader}
+ * and {@link CsvWriter}; the binary format is a tagged stream in which each doctor and patient is written once and
+ * appointments refer to them by ordinal. Imported rows are validated with {@link InputValidator}, must fall on a
+ * working slot of their doctor (past dates are allowed, for history) and are saved in batches through
+ * {@link AppointmentRepository#saveAll}, which also refuses IDs owned by another branch.
+ */
+class DataTransferService {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int BINARY_MAGIC = 0x434C4E58;
+    private static final byte BINARY_VERSION = 2;
+    private static final byte END = 0;
+    private static final byte DOCTOR = 1;
+    private static final byte PATIENT = 2;
+    private static final byte APPOINTMENT = 3;
+    private static final String[] APPOINTMENT_HEADER = {"id", "nic", "name", "email", "phone", "doctor", "date", "time", "paid", "treatment"};
+    private static final int REQUIRED_COLUMNS = APPOINTMENT_HEADER.length - 1;
+
+    private final AppointmentRepository repository;
+    private final DermatologistRoster roster;
+
+    public DataTransferService(AppointmentRepository repository, DermatologistRoster roster) {
+        this.repository = repository;
+        this.roster = roster;
+    }
+
+    /** Imports appointments from CSV with the columns written by {@link #exportCsv}; a blank id assigns a new one. */
+    public ImportReport importCsv(Path file) throws IOException {
+        Batch batch = new Batch();
+        try (CsvReader reader = new CsvReader(file)) {
+            List<String> fields;
+            while ((fields = reader.readRecord()) != null) {
+                int row = (int) reader.getRecordNumber();
+                if (row == 1 && fields.get(0).strip().equalsIgnoreCase(APPOINTMENT_HEADER[0])) {
+                    continue;
+                }
+                if (fields.size() < REQUIRED_COLUMNS) {
+                    batch.reject("Row " + row + ": expected at least " + REQUIRED_COLUMNS + " columns but found " + fields.size());
+                    continue;
+                }
+                try {
+                    String id = fields.get(0).strip();
+                    batch.add(new ImportRow(row, id.isEmpty() ? 0 : Integer.parseInt(id),
+                            new Patient(fields.get(1).strip(), fields.get(2).strip(), fields.get(3).strip(), fields.get(4).strip()),
+                            roster.findByName(fields.get(5).strip()), IsoDates.parseDate(fields.get(6).strip()),
+                            IsoDates.parseTime(fields.get(7).strip()), parsePaid(fields.get(8)),
+                            fields.size() > REQUIRED_COLUMNS ? parseTreatment(fields.get(REQUIRED_COLUMNS)) : null));
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    batch.reject("Row " + row + ": " + e.getMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    public ImportReport importBinary(Path file) throws IOException {
+        Batch batch = new Batch();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)), BUFFER_BYTES))) {
+            byte version;
+            if (in.readInt() != BINARY_MAGIC || (version = in.readByte()) < 1 || version > BINARY_VERSION) {
+                throw new IOException(file + " is not a clinic export file");
+            }
+            List<Dermatologist> doctors = new ArrayList<>();
+            List<Patient> patients = new ArrayList<>();
+            int row = 0;
+            while (true) {
+                byte tag = in.readByte();
+                switch (tag) {
+                    case DOCTOR -> doctors.add(roster.findByName(in.readUTF()));
+                    case PATIENT -> patients.add(new Patient(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+                    case APPOINTMENT -> {
+                        // The whole record is read before any check, so a bad row is rejected without losing our place.
+                        int id = in.readInt();
+                        int patientRef = in.readInt();
+                        int doctorRef = in.readUnsignedShort();
+                        int epochDay = in.readInt();
+                        int secondOfDay = in.readInt();
+                        boolean paid = in.readBoolean();
+                        int treatment = version > 1 ? in.readByte() : -1;
+                        row++;
+                        try {
+                            if (patientRef < 0 || patientRef >= patients.size()) {
+                                throw new IllegalArgumentException("unknown patient reference " + patientRef);
+                            }
+                            if (doctorRef >= doctors.size()) {
+                                throw new IllegalArgumentException("unknown dermatologist reference " + doctorRef);
+                            }
+                            if (treatment >= TreatmentType.values().length) {
+                                throw new IllegalArgumentException("unknown treatment " + treatment);
+                            }
+                            batch.add(new ImportRow(row, id, patients.get(patientRef), doctors.get(doctorRef),
+                                    LocalDate.ofEpochDay(epochDay), LocalTime.ofSecondOfDay(secondOfDay), paid,
+                                    treatment < 0 ? null : TreatmentType.values()[treatment]));
+                        } catch (IllegalArgumentException | DateTimeException e) {
+                            batch.reject("Row " + row + ": " + e.getMessage());
+                        }
+                    }
+                    case END -> {
+                        if (in.readLong() != row) {
+                            throw new IOException(file + " is incomplete: expected " + row + " appointments");
+                        }
+                        return batch.finish();
+                    }
+                    default -> throw new IOException(file + " has an unknown record type " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    public long exportCsv(Path file) throws IOException {
+        long[] rows = {0};
+        try (CsvWriter writer = new CsvWriter(file)) {
+            writer.record(APPOINTMENT_HEADER);
+            forEachAppointment(appointment -> {
+                Patient patient = appointment.getPatient();
+                Appointment.Slot slot = appointment.getSlot();
+                writer.field(appointment.getId()).field(patient.getNic()).field(patient.getName()).field(patient.getEmail())
+                        .field(patient.getPhone()).field(slot.dermatologist().getName()).field(slot.date())
+                        .field(slot.time()).field(appointment.isPaid() ? "true" : "false")
+                        .field(appointment.getTreatmentType() == null ? "" : appointment.getTreatmentType().name()).endRecord();
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    public long exportBinary(Path file) throws IOException {
+        long[] rows = {0};
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeByte(BINARY_VERSION);
+            Map<Dermatologist, Integer> doctorRefs = new IdentityHashMap<>();
+            Map<String, Integer> patientRefs = new HashMap<>();
+            forEachAppointment(appointment -> {
+                Appointment.Slot slot = appointment.getSlot();
+                Integer doctorRef = doctorRefs.get(slot.dermatologist());
+                if (doctorRef == null) {
+                    doctorRef = doctorRefs.size();
+                    doctorRefs.put(slot.dermatologist(), doctorRef);
+                    out.writeByte(DOCTOR);
+                    out.writeUTF(slot.dermatologist().getName());
+                }
+                Patient patient = appointment.getPatient();
+                Integer patientRef = patientRefs.get(patient.getNic());
+                if (patientRef == null) {
+                    patientRef = patientRefs.size();
+                    patientRefs.put(patient.getNic(), patientRef);
+                    out.writeByte(PATIENT);
+                    out.writeUTF(patient.getNic());
+                    out.writeUTF(patient.getName());
+                    out.writeUTF(patient.getEmail());
+                    out.writeUTF(patient.getPhone());
+                }
+                out.writeByte(APPOINTMENT);
+                out.writeInt(appointment.getId());
+                out.writeInt(patientRef);
+                out.writeShort(doctorRef);
+                out.writeInt((int) IsoDates.parseDate(slot.date()).toEpochDay());
+                out.writeInt(IsoDates.parseTime(slot.time()).toSecondOfDay());
+                out.writeBoolean(appointment.isPaid());
+                out.writeByte(appointment.getTreatmentType() == null ? -1 : appointment.getTreatmentType().ordinal());
+                rows[0]++;
+            });
+            out.writeByte(END);
+            out.writeLong(rows[0]);
+        }
+        return rows[0];
+    }
+
+    public long exportPatientsCsv(Path file) throws IOException {
+        long[] rows = {0};
+        try (CsvWriter writer = new CsvWriter(file)) {
+            writer.record("nic", "name", "email", "phone");
+            repository.forEachPatient(patient -> {
+                try {
+                    writer.record(patient.getNic(), patient.getName(), patient.getEmail(), patient.getPhone());
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    /** Writes one accounting line per invoice, with amounts in LKR. */
+    public long exportInvoicesCsv(Path file, List<Invoice> invoices) throws IOException {
+        StringBuilder amount = new StringBuilder(16);
+        try (CsvWriter writer = new CsvWriter(file)) {
+            writer.record("appointmentId", "nic", "patient", "doctor", "date", "time", "treatment", "treatmentFee", "registrationFee", "tax", "total");
+            for (Invoice invoice : invoices) {
+                Appointment appointment = invoice.getAppointment();
+                Appointment.Slot slot = appointment.getSlot();
+                writer.field(appointment.getId()).field(appointment.getPatient().getNic()).field(appointment.getPatient().getName())
+                        .field(slot.dermatologist().getName()).field(slot.date()).field(slot.time())
+                        .field(invoice.getTreatmentType().name());
+                for (long cents : new long[] {invoice.getTreatmentType().getPriceCents(), Invoice.REGISTRATION_FEE_CENTS, invoice.getTaxCents(), invoice.calculateTotal()}) {
+                    amount.setLength(0);
+                    writer.field(Money.appendTo(amount, cents).toString());
+                }
+                writer.endRecord();
+            }
+        }
+        return invoices.size();
+    }
+
+    private void forEachAppointment(AppointmentWriter action) throws IOException {
+        try {
+            repository.stream(AppointmentFilter.all()).forEachOrdered(appointment -> {
+                try {
+                    action.write(appointment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static TreatmentType parseTreatment(String value) {
+        String treatment = value.strip();
+        return treatment.isEmpty() ? null : TreatmentType.valueOf(treatment.toUpperCase(Locale.ROOT));
+    }
+
+    private static boolean parsePaid(String value) {
+        String paid = value.strip().toLowerCase(Locale.ROOT);
+        return paid.equals("true") || paid.equals("yes") || paid.equals("paid") || paid.equals("1");
+    }
+
+    private interface AppointmentWriter {
+        void write(Appointment appointment) throws IOException;
+    }
+
+    private record ImportRow(int row, int id, Patient patient, Dermatologist doctor, LocalDate date, LocalTime time, boolean paid,
+                             TreatmentType treatmentType) {}
+
+    private final class Batch {
+        private final List<ImportRow> rows = new ArrayList<>(BATCH_SIZE);
+        private final Map<String, Patient> patientsByNic = new HashMap<>();
+        private final Map<Object, String> canonicalText = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private final long started = System.nanoTime();
+        private long imported;
+        private long rejected;
+
+        void add(ImportRow row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(String reason) {
+            rejected++;
+            report(reason);
+        }
+
+        private void report(String reason) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(reason);
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            return new ImportReport(imported, rejected, errors, System.nanoTime() - started);
+        }
+
+        private void flush() {
+            List<Patient> patients = new ArrayList<>(rows.size());
+            for (ImportRow row : rows) {
+                patients.add(row.patient());
+            }
+            boolean[] invalid = new boolean[rows.size()];
+            for (ValidationError error : InputValidator.validateAll(patients)) {
+                int index = error.row() - 1;
+                if (!invalid[index]) {
+                    invalid[index] = true;
+                    rejected++;
+                }
+                report(new ValidationError(rows.get(index).row(), error.field(), error.value()).toString());
+            }
+
+            List<Appointment> appointments = new ArrayList<>(rows.size());
+            List<ImportRow> accepted = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                if (invalid[i]) {
+                    continue;
+                }
+                if (row.doctor() == null) {
+                    reject("Row " + row.row() + ": unknown dermatologist");
+                    continue;
+                }
+                if (!SlotCalendar.isWorkingSlot(row.doctor(), row.date(), row.time())) {
+                    reject("Row " + row.row() + ": " + row.date() + " " + row.time() + " is not a working slot for " + row.doctor().getName());
+                    continue;
+                }
+                if (row.id() > AppointmentStore.MAX_ID) {
+                    reject("Row " + row.row() + ": ID " + row.id() + " is above the highest allowed ID " + AppointmentStore.MAX_ID);
+                    continue;
+                }
+                if (repository.isOwnedElsewhere(row.id())) {
+                    reject("Row " + row.row() + ": ID " + row.id() + " belongs to another branch");
+                    continue;
+                }
+                Patient patient = intern(row.patient());
+                String date = canonicalText.computeIfAbsent(row.date(), Object::toString);
+                String time = canonicalText.computeIfAbsent(row.time(), Object::toString);
+                Appointment appointment = row.id() > 0
+                        ? new Appointment(row.id(), patient, row.doctor(), date, time, row.paid())
+                        : new Appointment(patient, row.doctor(), date, time);
+                if (row.treatmentType() != null) {
+                    appointment.markAsPaid(row.treatmentType());
+                } else if (row.paid()) {
+                    appointment.markAsPaid();
+                }
+                appointments.add(appointment);
+                accepted.add(row);
+            }
+            List<Appointment> saved = repository.saveAll(appointments);
+            imported += saved.size();
+            if (saved.size() < appointments.size()) {
+                int next = 0;
+                for (int i = 0; i < appointments.size(); i++) {
+                    if (next < saved.size() && saved.get(next) == appointments.get(i)) {
+                        next++;
+                    } else {
+                        reject("Row " + accepted.get(i).row() + ": slot already booked or ID already in use");
+                    }
+                }
+            }
+            rows.clear();
+            patientsByNic.clear();
+            if (canonicalText.size() > BATCH_SIZE) {
+                canonicalText.clear();
+            }
+        }
+
+        private Patient intern(Patient patient) {
+            Patient existing = repository.findPatient(patient.getNic());
+            if (existing != null) {
+                return existing;
+            }
+            return patientsByNic.computeIfAbsent(patient.getNic(), nic -> patient);
+        }
+    }
+}
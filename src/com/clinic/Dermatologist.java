@@ -1,23 +1,33 @@
 package com.clinic;
 
+import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 class Dermatologist {
     private final String name;
     private final List<String> availableDays;
+    private final Set<DayOfWeek> workingDays;
     private final LocalTime startTime;
     private final LocalTime endTime;
 
     public Dermatologist(String name, List<String> availableDays, LocalTime startTime, LocalTime endTime) {
         this.name = name;
         this.availableDays = availableDays;
+        this.workingDays = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : availableDays) {
+            workingDays.add(DayOfWeek.valueOf(day.toUpperCase(Locale.ROOT)));
+        }
         this.startTime = startTime;
         this.endTime = endTime;
     }
 
     public String getName() { return name; }
     public List<String> getAvailableDays() { return availableDays; }
+    public boolean worksOn(DayOfWeek day) { return workingDays.contains(day); }
     public LocalTime getStartTime() { return startTime; }
     public LocalTime getEndTime() { return endTime; }
     public String getSchedule() { return String.join(", ", availableDays); }
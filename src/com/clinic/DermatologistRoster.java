@@ -0,0 +1,31 @@
+package com.clinic;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class DermatologistRoster {
+    private final List<Dermatologist> dermatologists;
+    private final Map<String, Dermatologist> dermatologistsByName;
+
+    public DermatologistRoster(List<Dermatologist> dermatologists) {
+        this.dermatologists = List.copyOf(dermatologists);
+        this.dermatologistsByName = this.dermatologists.stream().collect(Collectors.toUnmodifiableMap(Dermatologist::getName, Function.identity()));
+    }
+
+    public static DermatologistRoster defaultRoster() {
+        return new DermatologistRoster(List.of(
+                new Dermatologist("Dr. Silva", List.of("MONDAY", "WEDNESDAY", "FRIDAY"), LocalTime.of(9, 0), LocalTime.of(17, 0)),
+                new Dermatologist("Dr. Perera", List.of("SATURDAY"), LocalTime.of(10, 0), LocalTime.of(15, 0)),
+                new Dermatologist("Dr. Fernando", List.of("TUESDAY", "THURSDAY", "SATURDAY"), LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                new Dermatologist("Dr. Wijeratne", List.of("MONDAY", "THURSDAY", "SUNDAY"), LocalTime.of(13, 0), LocalTime.of(18, 0))
+        ));
+    }
+
+    public List<Dermatologist> getDermatologists() { return dermatologists; }
+    public Dermatologist findByName(String name) { return dermatologistsByName.get(name); }
+    public Dermatologist get(int ordinal) { return dermatologists.get(ordinal); }
+    public int indexOf(Dermatologist dermatologist) { return dermatologists.indexOf(dermatologist); }
+}
@@ -0,0 +1,93 @@
+package com.clinic;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared date and slot lookups for dermatologist schedules. Upcoming working dates are computed once per day for the
+ * whole roster and served from that cache until the date rolls over.
+ */
+class DermatologistScheduler {
+    static final int BOOKING_WINDOW_DATES = 5;
+    private static final int WALK_IN_HORIZON_DAYS = 14;
+
+    private final List<Dermatologist> dermatologists;
+    private final SlotCalendar slotCalendar;
+    private final Clock clock;
+    private volatile Window window;
+
+    public DermatologistScheduler(List<Dermatologist> dermatologists, SlotCalendar slotCalendar) {
+        this(dermatologists, slotCalendar, Clock.systemDefaultZone());
+    }
+
+    public DermatologistScheduler(List<Dermatologist> dermatologists, SlotCalendar slotCalendar, Clock clock) {
+        this.dermatologists = List.copyOf(dermatologists);
+        this.slotCalendar = slotCalendar;
+        this.clock = clock;
+    }
+
+    public List<LocalDate> nextAvailableDates(Dermatologist dermatologist) {
+        List<LocalDate> dates = currentWindow().datesByDermatologist.get(dermatologist);
+        return dates != null ? dates : upcomingDates(dermatologist, LocalDate.now(clock), BOOKING_WINDOW_DATES);
+    }
+
+    public List<LocalTime> availableTimeSlots(Dermatologist dermatologist, LocalDate date) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalTime from = date.equals(now.toLocalDate()) ? now.toLocalTime() : LocalTime.MIN;
+        return slotCalendar.nextFreeSlots(dermatologist, date, from, Integer.MAX_VALUE);
+    }
+
+    public TimeSlot firstFreeSlot() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (int offset = 0; offset < WALK_IN_HORIZON_DAYS; offset++) {
+            LocalDate date = now.toLocalDate().plusDays(offset);
+            LocalTime from = offset == 0 ? now.toLocalTime() : LocalTime.MIN;
+            TimeSlot earliest = null;
+            for (Dermatologist dermatologist : dermatologists) {
+                if (!dermatologist.worksOn(date.getDayOfWeek())) {
+                    continue;
+                }
+                List<LocalTime> slots = slotCalendar.nextFreeSlots(dermatologist, date, from, 1);
+                if (!slots.isEmpty() && (earliest == null || slots.get(0).isBefore(earliest.time()))) {
+                    earliest = new TimeSlot(dermatologist, date, slots.get(0));
+                }
+            }
+            if (earliest != null) {
+                return earliest;
+            }
+        }
+        return null;
+    }
+
+    private Window currentWindow() {
+        LocalDate today = LocalDate.now(clock);
+        Window current = window;
+        if (current == null || !current.day.equals(today)) {
+            Map<Dermatologist, List<LocalDate>> datesByDermatologist = new IdentityHashMap<>();
+            for (Dermatologist dermatologist : dermatologists) {
+                datesByDermatologist.put(dermatologist, upcomingDates(dermatologist, today, BOOKING_WINDOW_DATES));
+            }
+            current = new Window(today, datesByDermatologist);
+            window = current;
+        }
+        return current;
+    }
+
+    private static List<LocalDate> upcomingDates(Dermatologist dermatologist, LocalDate start, int count) {
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (LocalDate date = start; dates.size() < count && date.isBefore(start.plusYears(1)); date = date.plusDays(1)) {
+            if (dermatologist.worksOn(date.getDayOfWeek())) {
+                dates.add(date);
+            }
+        }
+        return List.copyOf(dates);
+    }
+
+    private record Window(LocalDate day, Map<Dermatologist, List<LocalDate>> datesByDermatologist) {}
+}
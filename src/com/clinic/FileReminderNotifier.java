@@ -0,0 +1,41 @@
+package com.clinic;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stand-in for an SMS or email gateway: appends one line per reminder to a local file, which can be tailed or fed to
+ * whatever actually contacts patients.
+ */
+class FileReminderNotifier implements ReminderNotifier {
+    private final Path file;
+
+    public FileReminderNotifier(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void send(List<Appointment> appointments) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            StringBuilder line = new StringBuilder(128);
+            for (Appointment appointment : appointments) {
+                Patient patient = appointment.getPatient();
+                Appointment.Slot slot = appointment.getSlot();
+                line.setLength(0);
+                line.append("REMINDER ").append(slot.date()).append(' ').append(slot.time())
+                        .append(" | appointment ").append(appointment.getId())
+                        .append(" | ").append(slot.dermatologist().getName())
+                        .append(" | ").append(patient.getName())
+                        .append(" | ").append(patient.getEmail())
+                        .append(" | ").append(patient.getPhone()).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+}
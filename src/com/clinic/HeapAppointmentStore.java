@@ -0,0 +1,49 @@
+package com.clinic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+class HeapAppointmentStore implements AppointmentStore {
+    private final Map<Integer, Appointment> appointmentsById = new ConcurrentHashMap<>();
+    private final AtomicInteger maxId = new AtomicInteger();
+
+    @Override
+    public boolean insert(Appointment appointment) {
+        if (appointment.getId() <= 0 || appointment.getId() > MAX_ID || appointmentsById.putIfAbsent(appointment.getId(), appointment) != null) {
+            return false;
+        }
+        maxId.accumulateAndGet(appointment.getId(), Math::max);
+        return true;
+    }
+
+    @Override
+    public Appointment get(int id) {
+        return appointmentsById.get(id);
+    }
+
+    @Override
+    public void put(Appointment appointment) {
+        appointmentsById.put(appointment.getId(), appointment);
+        maxId.accumulateAndGet(appointment.getId(), Math::max);
+    }
+
+    @Override
+    public int size() {
+        return appointmentsById.size();
+    }
+
+    @Override
+    public int maxId() {
+        return maxId.get();
+    }
+
+    @Override
+    public void forEach(Consumer<Appointment> action) {
+        appointmentsById.values().forEach(action);
+    }
+
+    @Override
+    public void close() {}
+}
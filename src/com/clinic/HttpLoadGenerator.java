@@ -0,0 +1,104 @@
+package com.clinic;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local load generator for {@link ClinicHttpServer}. Each worker books Dr. Silva's Monday slots in a distinct
+ * range of weeks and searches for the patient it just booked, then latency percentiles are reported per operation.
+ * Any response outside 2xx counts as failed, except 409s, which are reported separately as conflicts: they mean the
+ * slot was already taken, for example when the generator is rerun against the same data directory.
+ *
+ * <p>Usage: {@code HttpLoadGenerator [baseUrl] [concurrency] [requestsPerWorker]}
+ */
+public class HttpLoadGenerator {
+    private static final String DOCTOR = "Dr. Silva";
+    private static final int SLOTS_PER_DAY = 32;
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int requestsPerWorker = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        HttpClient client = HttpClient.newHttpClient();
+        LocalDate firstMonday = LocalDate.now().plusYears(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        long[] bookLatencies = new long[concurrency * requestsPerWorker];
+        long[] searchLatencies = new long[concurrency * requestsPerWorker];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> running = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int worker = 0; worker < concurrency; worker++) {
+            int workerId = worker;
+            running.add(workers.submit(() -> {
+                for (int i = 0; i < requestsPerWorker; i++) {
+                    int index = workerId * requestsPerWorker + i;
+                    LocalDate date = firstMonday.plusWeeks(index / SLOTS_PER_DAY);
+                    LocalTime time = LocalTime.of(9, 0).plusMinutes(15L * (index % SLOTS_PER_DAY));
+                    String nic = "LOAD" + String.format("%08d", index);
+                    String form = "nic=" + nic + "&name=Load+Patient&email=load%40clinic.lk&phone=0771234567"
+                            + "&doctor=" + URLEncoder.encode(DOCTOR, StandardCharsets.UTF_8) + "&date=" + date + "&time=" + time;
+                    bookLatencies[index] = timed(client, HttpRequest.newBuilder(URI.create(baseUrl + "/appointments"))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(form)).build(), failures, conflicts);
+                    searchLatencies[index] = timed(client, HttpRequest.newBuilder(URI.create(baseUrl + "/appointments?q=" + nic)).GET().build(), failures, conflicts);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        workers.shutdown();
+
+        int requests = bookLatencies.length + searchLatencies.length;
+        System.out.printf("%d requests in %.2f s (%.0f req/s), %d failed, %d conflicts%n", requests, elapsed / 1e9,
+                requests * 1e9 / elapsed, failures.get(), conflicts.get());
+        report("book", bookLatencies);
+        report("search", searchLatencies);
+    }
+
+    private static long timed(HttpClient client, HttpRequest request, AtomicInteger failures, AtomicInteger conflicts) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 409) {
+                conflicts.incrementAndGet();
+            } else if (response.statusCode() / 100 != 2) {
+                failures.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static void report(String operation, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-7s p50 %.2f ms  p99 %.2f ms  max %.2f ms%n", operation,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,33 @@
+package com.clinic;
+
+import java.util.List;
+
+class ImportReport {
+    private final long imported;
+    private final long rejected;
+    private final List<String> errors;
+    private final long elapsedNanos;
+
+    public ImportReport(long imported, long rejected, List<String> errors, long elapsedNanos) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = List.copyOf(errors);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getImported() { return imported; }
+    public long getRejected() { return rejected; }
+    /** The first rejection reasons, capped so a bad file cannot exhaust memory. */
+    public List<String> getErrors() { return errors; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Imported %d appointments, %d rejected, %.1f ms (%.0f rows/s)".formatted(
+                imported, rejected, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+    }
+}
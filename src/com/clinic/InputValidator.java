@@ -1,12 +1,71 @@
 package com.clinic;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 class InputValidator {
     public static boolean isValidNic(String nic) { return nic != null && nic.length() >= 9; }
     public static boolean isValidName(String name) { return name != null && name.length() >= 4; }
-    public static boolean isValidEmail(String email) { return email != null && email.matches("^[A-Za-z0-9+_.-]+@(.+)$"); }
-    public static boolean isValidPhone(String phone) { return phone != null && phone.matches("\\d{10}"); }
-}
\ No newline at end of file
+
+    public static boolean isValidEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            boolean allowed = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '+' || c == '_' || c == '.' || c == '-';
+            if (!allowed) {
+                return false;
+            }
+        }
+        for (int i = at + 1; i < email.length(); i++) {
+            if (isLineTerminator(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isValidPhone(String phone) {
+        if (phone == null || phone.length() != 10) {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static List<ValidationError> validateAll(List<Patient> rows) {
+        return IntStream.range(0, rows.size())
+                .parallel()
+                .boxed()
+                .flatMap(row -> validate(row + 1, rows.get(row)).stream())
+                .toList();
+    }
+
+    private static List<ValidationError> validate(int row, Patient patient) {
+        if (isValidNic(patient.getNic()) && isValidName(patient.getName()) && isValidEmail(patient.getEmail()) && isValidPhone(patient.getPhone())) {
+            return List.of();
+        }
+        List<ValidationError> errors = new ArrayList<>(4);
+        if (!isValidNic(patient.getNic())) errors.add(new ValidationError(row, "NIC", patient.getNic()));
+        if (!isValidName(patient.getName())) errors.add(new ValidationError(row, "name", patient.getName()));
+        if (!isValidEmail(patient.getEmail())) errors.add(new ValidationError(row, "email", patient.getEmail()));
+        if (!isValidPhone(patient.getPhone())) errors.add(new ValidationError(row, "phone", patient.getPhone()));
+        return errors;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
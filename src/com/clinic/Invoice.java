@@ -1,46 +1,46 @@
 package com.clinic;
 
 class Invoice {
+    static final long REGISTRATION_FEE_CENTS = 50_000;
+    private static final long TAX_RATE_PER_MILLE = 25;
+    private static final long[] TAX_CENTS = new long[TreatmentType.values().length];
+    private static final long[] TOTAL_CENTS = new long[TreatmentType.values().length];
+
+    static {
+        for (TreatmentType type : TreatmentType.values()) {
+            long subtotal = REGISTRATION_FEE_CENTS + type.getPriceCents();
+            TAX_CENTS[type.ordinal()] = taxCents(subtotal);
+            TOTAL_CENTS[type.ordinal()] = subtotal + TAX_CENTS[type.ordinal()];
+        }
+    }
+
+    /** Tax on a non-negative subtotal, rounded half up to the cent. */
+    static long taxCents(long subtotalCents) {
+        return (subtotalCents * TAX_RATE_PER_MILLE + 500) / 1000;
+    }
+
     private final Appointment appointment;
     private final TreatmentType treatmentType;
-    private final double registrationFee = 500.00;
-    private final double taxRate = 0.025;
 
     public Invoice(Appointment appointment, TreatmentType treatmentType) {
         this.appointment = appointment;
         this.treatmentType = treatmentType;
     }
 
-    public double calculateTotal() {
-        double treatmentCost = treatmentType.getPrice();
-        double total = registrationFee + treatmentCost;
-        double tax = total * taxRate;
-        return Math.round((total + tax) * 100.0) / 100.0;
+    public Appointment getAppointment() { return appointment; }
+    public TreatmentType getTreatmentType() { return treatmentType; }
+    public long getTaxCents() { return TAX_CENTS[treatmentType.ordinal()]; }
+
+    public long calculateTotal() {
+        return TOTAL_CENTS[treatmentType.ordinal()];
+    }
+
+    public static long totalCents(TreatmentType treatmentType) {
+        return TOTAL_CENTS[treatmentType.ordinal()];
     }
 
     @Override
     public String toString() {
-        return """
-            🏥🧾 Clinic Invoice
-            ====================================
-            📅 Appointment ID : %d
-            🧑 Patient Name   : %s
-            💉 Treatment      : %s
-            ------------------------------------
-            💵 Treatment Cost : LKR %.2f
-            🪙 Registration Fee : LKR %.2f
-            💰 Tax (2.5%%)      : LKR %.2f
-            ====================================
-            🧾 Total Amount   : LKR %.2f
-            ====================================
-            """.formatted(
-                appointment.getId(),
-                appointment.getPatient().getName(),
-                treatmentType.name(),
-                treatmentType.getPrice(),
-                registrationFee,
-                (registrationFee + treatmentType.getPrice()) * taxRate,
-                calculateTotal()
-        );
+        return ReceiptRenderer.EMOJI.render(this);
     }
-}
\ No newline at end of file
+}
@@ -1,41 +1,86 @@
 package com.clinic;
 
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 class InvoiceService {
     private final AppointmentRepository repository;
-    private final Scanner scanner = new Scanner(System.in);
+    private final ClinicMetrics metrics;
 
-    public InvoiceService(AppointmentRepository repository) {
+    public InvoiceService(AppointmentRepository repository, ClinicMetrics metrics) {
         this.repository = repository;
+        this.metrics = metrics;
     }
 
-    public void generateInvoice(int appointmentId) {
-        Appointment appointment = repository.findById(appointmentId);
+    public ServiceResult<Invoice> generateInvoice(BillingRequest request) {
+        long started = System.nanoTime();
+        Appointment appointment = repository.findById(request.appointmentId());
         if (appointment == null) {
-            System.out.println(MessageFormatter.error("Appointment not found."));
-            return;
+            metrics.recordInvoiceLatency(System.nanoTime() - started);
+            return ServiceResult.failure(Outcome.NOT_FOUND, "Appointment not found.");
         }
+        TreatmentType previous = repository.markAsPaid(appointment, request.treatmentType());
+        Invoice invoice = new Invoice(appointment, request.treatmentType());
+        metrics.recordInvoice(invoice, previous);
+        metrics.recordInvoiceLatency(System.nanoTime() - started);
+        return ServiceResult.success(invoice, "Invoice generated.");
+    }
 
-        System.out.println("Select Treatment Type:");
-        TreatmentType[] treatmentTypes = TreatmentType.values();
-        for (int i = 0; i < treatmentTypes.length; i++) {
-            System.out.println((i + 1) + ". " + treatmentTypes[i].name() + " (LKR " + treatmentTypes[i].getPrice() + ")");
-        }
+    public BillingRun billAll(List<BillingRequest> requests) {
+        return billAll(requests, new ArrayList<>());
+    }
 
-        try {
-            int treatmentChoice = Integer.parseInt(scanner.nextLine()) - 1;
-            if (treatmentChoice < 0 || treatmentChoice >= treatmentTypes.length) {
-                System.out.println(MessageFormatter.error("Invalid choice."));
-                return;
+    /** Bills every {@code appointmentId,treatmentType} row of the CSV file; a first row that is not numeric is a header. */
+    public BillingRun billFromCsv(Path csvFile) throws IOException {
+        List<BillingRequest> requests = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(csvFile)) {
+            List<String> fields;
+            while ((fields = reader.readRecord()) != null) {
+                long row = reader.getRecordNumber();
+                String id = fields.get(0).strip();
+                if (row == 1 && (id.isEmpty() || !Character.isDigit(id.charAt(0)))) {
+                    continue;
+                }
+                try {
+                    if (fields.size() < 2) {
+                        throw new IllegalArgumentException("expected appointmentId,treatmentType");
+                    }
+                    requests.add(new BillingRequest(Integer.parseInt(id), TreatmentType.valueOf(fields.get(1).strip().toUpperCase(Locale.ROOT))));
+                } catch (IllegalArgumentException e) {
+                    rejected.add("Row " + row + ": invalid billing row " + fields + " (" + e.getMessage() + ")");
+                }
             }
+        }
+        return billAll(requests, rejected);
+    }
+
+    private BillingRun billAll(List<BillingRequest> requests, List<String> rejected) {
+        long started = System.nanoTime();
+        List<Invoice> invoices = requests.parallelStream()
+                .map(request -> {
+                    Appointment appointment = repository.findById(request.appointmentId());
+                    return appointment == null ? null : new Invoice(appointment, request.treatmentType());
+                })
+                .toList();
 
-            TreatmentType treatmentType = treatmentTypes[treatmentChoice];
-            Invoice invoice = new Invoice(appointment, treatmentType);
-            appointment.markAsPaid();
-            System.out.println(invoice);
-        } catch (NumberFormatException e) {
-            System.out.println(MessageFormatter.error("Invalid choice."));
+        List<Invoice> billable = new ArrayList<>(invoices.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            if (invoices.get(i) == null) {
+                rejected.add("Appointment " + requests.get(i).appointmentId() + " not found");
+            } else {
+                billable.add(invoices.get(i));
+            }
+        }
+        // Re-billing an appointment replaces its earlier invoice, as generateInvoice does.
+        List<TreatmentType> previous = repository.markAllAsPaid(billable);
+        for (int i = 0; i < billable.size(); i++) {
+            metrics.recordInvoice(billable.get(i), previous.get(i));
         }
+        long totalCents = billable.parallelStream().mapToLong(Invoice::calculateTotal).sum();
+        return new BillingRun(billable, rejected, totalCents, System.nanoTime() - started);
     }
 }
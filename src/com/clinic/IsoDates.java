@@ -0,0 +1,52 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Fast paths for the fixed ISO forms appointments are stored in ({@code yyyy-MM-dd}, {@code HH:mm} and
+ * {@code HH:mm:ss}). Anything else, including invalid values, goes through the JDK parsers so callers see the same
+ * results and exceptions as {@link LocalDate#parse} and {@link LocalTime#parse}.
+ */
+final class IsoDates {
+    private IsoDates() {}
+
+    public static LocalDate parseDate(CharSequence text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && (day <= 28 || day <= Month.of(month).length(Year.isLeap(year)))) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text);
+    }
+
+    public static LocalTime parseTime(CharSequence text) {
+        int length = text.length();
+        if ((length == 5 || length == 8 && text.charAt(5) == ':') && text.charAt(2) == ':') {
+            int hour = digits(text, 0, 2);
+            int minute = digits(text, 3, 2);
+            int second = length == 8 ? digits(text, 6, 2) : 0;
+            if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60) {
+                return LocalTime.of(hour, minute, second);
+            }
+        }
+        return LocalTime.parse(text);
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,386 @@
+package com.clinic;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Appointment store backed by a memory-mapped file of fixed-width 16-byte records addressed directly by appointment ID.
+ * Dates are stored as epoch days, times as minute of day, doctors as roster ordinals and patients as references into
+ * an interned, append-only patient table, so heap use does not grow with the number of appointments.
+ *
+ * <p>{@link #get} materialises a detached {@link Appointment} on every call; bulk readers should use
+ * {@link #forEachSlot}, which reads the raw fields in place. Writes land in the page cache and become durable on
+ * {@link #sync}: concurrent callers share one flush of the segments written since the last one, the way the
+ * appointment log's group commit shares one {@code fsync}.
+ */
+class MappedAppointmentStore implements AppointmentStore {
+    private static final int RECORD_BYTES = 16;
+    private static final int RECORDS_PER_SEGMENT = 1 << 20;
+    private static final int MAX_SEGMENTS = (MAX_ID + 1) / RECORDS_PER_SEGMENT;
+    private static final int MAX_PATIENT_BYTES = 4 * (Short.BYTES + 0xFFFF);
+    private static final int MAGIC = 0x434C4E43;
+
+    private static final int ID = 0;
+    private static final int PATIENT = 4;
+    private static final int EPOCH_DAY = 8;
+    private static final int MINUTE = 12;
+    private static final int DOCTOR = 14;
+    private static final int FLAGS = 15;
+    private static final byte PAID = 1;
+    private static final int TREATMENT_SHIFT = 1;
+    private static final int HEADER_SIZE = 4;
+    private static final int HEADER_MAX_ID = 8;
+    private static final TreatmentType[] TREATMENTS = TreatmentType.values();
+
+    private final DermatologistRoster roster;
+    private final FileChannel recordChannel;
+    private final FileChannel patientChannel;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final List<Patient> patients = new ArrayList<>();
+    private final Map<String, Integer> patientRefsByNic = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger maxId = new AtomicInteger();
+    private final AtomicLongArray dirtySegments = new AtomicLongArray(MAX_SEGMENTS / Long.SIZE);
+    private final AtomicLong writes = new AtomicLong();
+    private final Object syncLock = new Object();
+    private volatile boolean patientsDirty;
+    private long syncedWrites;
+
+    public MappedAppointmentStore(Path directory, DermatologistRoster roster) throws IOException {
+        Files.createDirectories(directory);
+        this.roster = roster;
+        this.recordChannel = FileChannel.open(directory.resolve("appointments.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.patientChannel = FileChannel.open(directory.resolve("patients.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadPatients(directory.resolve("patients.dat"));
+
+        MappedByteBuffer header = segment(0);
+        if (header.getInt(ID) == MAGIC) {
+            size.set(header.getInt(HEADER_SIZE));
+            maxId.set(Math.min(header.getInt(HEADER_MAX_ID), MAX_ID));
+            recoverTail();
+        } else {
+            header.putInt(ID, MAGIC);
+        }
+    }
+
+    @Override
+    public boolean insert(Appointment appointment) {
+        int id = appointment.getId();
+        if (id <= 0 || id > MAX_ID) {
+            return false;
+        }
+        MappedByteBuffer segment = segment(id / RECORDS_PER_SEGMENT);
+        int offset = (id % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        synchronized (segment) {
+            if (segment.getInt(offset + ID) != 0) {
+                return false;
+            }
+            write(segment, offset, appointment);
+        }
+        recordInserted(id);
+        written(id / RECORDS_PER_SEGMENT);
+        return true;
+    }
+
+    @Override
+    public Appointment get(int id) {
+        if (id <= 0 || id > maxId.get()) {
+            return null;
+        }
+        MappedByteBuffer segment = segment(id / RECORDS_PER_SEGMENT);
+        int offset = (id % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        if (segment.getInt(offset + ID) != id) {
+            return null;
+        }
+        return read(segment, offset);
+    }
+
+    @Override
+    public void put(Appointment appointment) {
+        int id = appointment.getId();
+        if (id <= 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Appointment ID " + id + " is outside 1.." + MAX_ID);
+        }
+        MappedByteBuffer segment = segment(id / RECORDS_PER_SEGMENT);
+        int offset = (id % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        boolean inserted;
+        synchronized (segment) {
+            inserted = segment.getInt(offset + ID) == 0;
+            write(segment, offset, appointment);
+        }
+        if (inserted) {
+            recordInserted(id);
+        }
+        written(id / RECORDS_PER_SEGMENT);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int maxId() {
+        return maxId.get();
+    }
+
+    @Override
+    public void forEach(Consumer<Appointment> action) {
+        int last = maxId.get();
+        for (int id = 1; id <= last; id++) {
+            Appointment appointment = get(id);
+            if (appointment != null) {
+                action.accept(appointment);
+            }
+        }
+    }
+
+    @Override
+    public void forEachSlot(int fromId, int toId, SlotVisitor visitor) {
+        Patient[] table;
+        synchronized (patients) {
+            table = patients.toArray(new Patient[0]);
+        }
+        int last = Math.min(toId - 1, maxId.get());
+        for (int id = Math.max(fromId, 1); id <= last; id++) {
+            MappedByteBuffer segment = segment(id / RECORDS_PER_SEGMENT);
+            int offset = (id % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+            if (segment.getInt(offset + ID) != id) {
+                continue;
+            }
+            int ref = segment.getInt(offset + PATIENT);
+            Patient patient = ref < table.length ? table[ref] : patient(ref);
+            if (patient == null) {
+                continue;
+            }
+            int flags = segment.get(offset + FLAGS) & 0xFF;
+            int treatment = flags >>> TREATMENT_SHIFT;
+            visitor.visit(id, patient, roster.get(segment.get(offset + DOCTOR)), segment.getInt(offset + EPOCH_DAY),
+                    segment.getShort(offset + MINUTE) / SlotCalendar.SLOT_MINUTES,
+                    (flags & PAID) != 0 && treatment > 0 ? TREATMENTS[treatment - 1] : null);
+        }
+    }
+
+    @Override
+    public void sync() {
+        long target = writes.get();
+        synchronized (syncLock) {
+            if (syncedWrites >= target) {
+                return;
+            }
+            long through = writes.get();
+            try {
+                if (patientsDirty) {
+                    patientsDirty = false;
+                    patientChannel.force(false);
+                }
+                for (int word = 0; word < dirtySegments.length(); word++) {
+                    for (long dirty = dirtySegments.getAndSet(word, 0); dirty != 0; dirty &= dirty - 1) {
+                        segments.get(word * Long.SIZE + Long.numberOfTrailingZeros(dirty)).force();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            syncedWrites = through;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writeHeader();
+            for (int i = 0; i < MAX_SEGMENTS; i++) {
+                MappedByteBuffer segment = segments.get(i);
+                if (segment != null) {
+                    segment.force();
+                }
+            }
+            patientChannel.force(true);
+            recordChannel.close();
+            patientChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recordInserted(int id) {
+        size.incrementAndGet();
+        maxId.accumulateAndGet(id, Math::max);
+        writeHeader();
+        written(0);
+    }
+
+    /** Marks the segment for the next {@link #sync}; the mark is set before the write is counted. */
+    private void written(int segment) {
+        dirtySegments.getAndAccumulate(segment / Long.SIZE, 1L << segment, (bits, bit) -> bits | bit);
+        writes.incrementAndGet();
+    }
+
+    private void writeHeader() {
+        MappedByteBuffer header = segment(0);
+        header.putInt(HEADER_SIZE, size.get());
+        header.putInt(HEADER_MAX_ID, maxId.get());
+    }
+
+    private void recoverTail() throws IOException {
+        long records = recordChannel.size() / RECORD_BYTES;
+        for (long id = maxId.get() + 1L; id < records && id <= MAX_ID; id++) {
+            MappedByteBuffer segment = segment((int) (id / RECORDS_PER_SEGMENT));
+            if (segment.getInt((int) (id % RECORDS_PER_SEGMENT) * RECORD_BYTES + ID) == id) {
+                size.incrementAndGet();
+                maxId.set((int) id);
+            }
+        }
+        writeHeader();
+    }
+
+    private void write(MappedByteBuffer segment, int offset, Appointment appointment) {
+        Appointment.Slot slot = appointment.getSlot();
+        segment.putInt(offset + PATIENT, intern(appointment.getPatient()));
+        segment.putInt(offset + EPOCH_DAY, (int) IsoDates.parseDate(slot.date()).toEpochDay());
+        segment.putShort(offset + MINUTE, (short) (IsoDates.parseTime(slot.time()).toSecondOfDay() / 60));
+        segment.put(offset + DOCTOR, (byte) roster.indexOf(slot.dermatologist()));
+        TreatmentType treatmentType = appointment.getTreatmentType();
+        int treatment = treatmentType == null ? 0 : treatmentType.ordinal() + 1;
+        segment.put(offset + FLAGS, (byte) ((appointment.isPaid() ? PAID : 0) | treatment << TREATMENT_SHIFT));
+        segment.putInt(offset + ID, appointment.getId());
+    }
+
+    private Appointment read(MappedByteBuffer segment, int offset) {
+        Patient patient = patient(segment.getInt(offset + PATIENT));
+        if (patient == null) {
+            return null;
+        }
+        int minute = segment.getShort(offset + MINUTE);
+        int flags = segment.get(offset + FLAGS) & 0xFF;
+        Appointment appointment = new Appointment(
+                segment.getInt(offset + ID),
+                patient,
+                roster.get(segment.get(offset + DOCTOR)),
+                LocalDate.ofEpochDay(segment.getInt(offset + EPOCH_DAY)).toString(),
+                LocalTime.of(minute / 60, minute % 60).toString(),
+                (flags & PAID) != 0);
+        int treatment = flags >>> TREATMENT_SHIFT;
+        if (treatment > 0) {
+            appointment.markAsPaid(TREATMENTS[treatment - 1]);
+        }
+        return appointment;
+    }
+
+    /**
+     * The interned patient, or {@code null} for a reference past the end of the table: a record whose patient never
+     * reached the disk because a crash interrupted the {@link #sync} that would have acknowledged it.
+     */
+    private Patient patient(int ref) {
+        synchronized (patients) {
+            return ref >= 0 && ref < patients.size() ? patients.get(ref) : null;
+        }
+    }
+
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(index);
+            if (segment == null) {
+                try {
+                    long position = (long) index * RECORDS_PER_SEGMENT * RECORD_BYTES;
+                    segment = recordChannel.map(FileChannel.MapMode.READ_WRITE, position, (long) RECORDS_PER_SEGMENT * RECORD_BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                segments.set(index, segment);
+            }
+            return segment;
+        }
+    }
+
+    private int intern(Patient patient) {
+        Integer existing = patientRefsByNic.get(patient.getNic());
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (patients) {
+            existing = patientRefsByNic.get(patient.getNic());
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0);
+                out.writeUTF(patient.getNic());
+                out.writeUTF(patient.getName());
+                out.writeUTF(patient.getEmail());
+                out.writeUTF(patient.getPhone());
+                ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+                record.putInt(0, record.remaining() - Integer.BYTES);
+                while (record.hasRemaining()) {
+                    patientChannel.write(record, patientChannel.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            patientsDirty = true;
+            int ref = patients.size();
+            patients.add(patient);
+            patientRefsByNic.put(patient.getNic(), ref);
+            return ref;
+        }
+    }
+
+    private void loadPatients(Path file) throws IOException {
+        long validBytes = 0;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(stream);
+            while (true) {
+                Patient patient;
+                try {
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_PATIENT_BYTES) {
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+                    DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+                    patient = new Patient(fields.readUTF(), fields.readUTF(), fields.readUTF(), fields.readUTF());
+                    validBytes += Integer.BYTES + length;
+                } catch (EOFException | UTFDataFormatException e) {
+                    // A torn tail: the patient was never acknowledged, so it ends the valid data.
+                    break;
+                }
+                patientRefsByNic.put(patient.getNic(), patients.size());
+                patients.add(patient);
+            }
+        }
+        patientChannel.truncate(validBytes);
+    }
+}
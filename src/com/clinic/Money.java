@@ -0,0 +1,16 @@
+package com.clinic;
+
+class Money {
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(16), cents).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        long magnitude = Math.abs(cents);
+        int fraction = (int) (magnitude % 100);
+        return out.append(magnitude / 100).append(fraction < 10 ? ".0" : ".").append(fraction);
+    }
+}
@@ -0,0 +1,8 @@
+package com.clinic;
+
+enum Outcome {
+    SUCCESS,
+    NOT_FOUND,
+    INVALID,
+    SLOT_UNAVAILABLE
+}
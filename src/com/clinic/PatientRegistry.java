@@ -0,0 +1,44 @@
+package com.clinic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+class PatientRegistry {
+    private final Map<String, Registration> registrationsByNic = new ConcurrentHashMap<>();
+
+    public Patient intern(Patient patient) {
+        return registrationsByNic.computeIfAbsent(patient.getNic(), nic -> new Registration(patient)).patient;
+    }
+
+    public Patient findByNic(String nic) {
+        Registration registration = registrationsByNic.get(nic);
+        return registration == null ? null : registration.patient;
+    }
+
+    public void linkAppointment(Patient patient, int appointmentId) {
+        registrationsByNic.computeIfAbsent(patient.getNic(), nic -> new Registration(patient)).appointmentIds.add(appointmentId);
+    }
+
+    public int[] appointmentIds(String nic) {
+        Registration registration = registrationsByNic.get(nic);
+        return registration == null ? new int[0] : registration.appointmentIds.toArray();
+    }
+
+    public void forEach(Consumer<Patient> action) {
+        registrationsByNic.values().forEach(registration -> action.accept(registration.patient));
+    }
+
+    public int size() {
+        return registrationsByNic.size();
+    }
+
+    private static final class Registration {
+        final Patient patient;
+        final IntList appointmentIds = new IntList(2);
+
+        Registration(Patient patient) {
+            this.patient = patient;
+        }
+    }
+}
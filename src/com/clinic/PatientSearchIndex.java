@@ -0,0 +1,286 @@
+package com.clinic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Prefix and typo-tolerant search over patient name, NIC, email and phone. Normalised terms live in a sorted
+ * dictionary for prefix scans. Name tokens are also indexed by trigram and length, which proposes candidates for
+ * bounded edit-distance matching when prefixes alone do not fill the requested number of results; identifiers
+ * (NIC, email, phone) only match by prefix. Patients are added incrementally and concurrently as they are first
+ * booked.
+ */
+class PatientSearchIndex {
+    private static final int CANDIDATE_FACTOR = 8;
+    private static final int FUZZY_SCORE = 1_000;
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    private final Map<String, Integer> ordinalsByNic = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Patient[]> segments = new AtomicReferenceArray<>(1 << 15);
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+    private final NavigableMap<String, Term> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, List<Term>> tokensByTrigram = new ConcurrentHashMap<>();
+
+    public void add(Patient patient) {
+        if (patient.getNic() == null || ordinalsByNic.containsKey(patient.getNic())) {
+            return;
+        }
+        int ordinal = nextOrdinal.getAndIncrement();
+        if (ordinalsByNic.putIfAbsent(patient.getNic(), ordinal) != null) {
+            return;
+        }
+        slot(ordinal)[ordinal & (SEGMENT_SIZE - 1)] = patient;
+
+        String name = normalize(patient.getName());
+        addTerm(name, ordinal, false);
+        for (String token : name.split(" ")) {
+            addTerm(token, ordinal, true);
+        }
+        addTerm(normalize(patient.getNic()), ordinal, false);
+        String email = normalize(patient.getEmail());
+        addTerm(email, ordinal, false);
+        addTerm(normalize(patient.getPhone()), ordinal, false);
+    }
+
+    public int size() {
+        return ordinalsByNic.size();
+    }
+
+    /**
+     * Best matches first: exact terms, then prefixes (shorter completions first), then patients whose name tokens
+     * are all within a small edit distance of the query tokens.
+     */
+    public List<Patient> search(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int candidates = limit * CANDIDATE_FACTOR;
+        Map<Integer, Integer> scores = new HashMap<>();
+        int scanned = 0;
+        for (Map.Entry<String, Term> entry : terms.tailMap(key, true).entrySet()) {
+            if (!entry.getKey().startsWith(key) || scanned++ >= candidates) {
+                break;
+            }
+            score(scores, entry.getValue(), entry.getKey().length() == key.length() ? 0 : 1 + entry.getKey().length() - key.length(), candidates);
+        }
+        if (scores.size() < limit) {
+            fuzzyMatches(key.split(" "), scores, candidates);
+        }
+
+        PriorityQueue<int[]> best = new PriorityQueue<>(limit + 1, (a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(b[0], a[0]));
+        scores.forEach((ordinal, score) -> {
+            best.add(new int[] {ordinal, score});
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        Patient[] ranked = new Patient[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            int ordinal = best.poll()[0];
+            ranked[i] = segments.get(ordinal >>> SEGMENT_BITS)[ordinal & (SEGMENT_SIZE - 1)];
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    private void fuzzyMatches(String[] tokens, Map<Integer, Integer> scores, int candidates) {
+        Map<Integer, Integer> distances = null;
+        for (String token : tokens) {
+            Map<Integer, Integer> tokenDistances = new HashMap<>();
+            for (Term term : similarTokens(token)) {
+                int distance = editDistance(token, term.text, maxEdits(token));
+                for (int ordinal : term.ordinals.toArray()) {
+                    tokenDistances.merge(ordinal, distance, Math::min);
+                }
+            }
+            if (distances == null) {
+                distances = tokenDistances;
+            } else {
+                Map<Integer, Integer> previous = distances;
+                tokenDistances.keySet().retainAll(previous.keySet());
+                tokenDistances.replaceAll((ordinal, distance) -> distance + previous.get(ordinal));
+                distances = tokenDistances;
+            }
+            if (distances.isEmpty()) {
+                return;
+            }
+        }
+        for (Map.Entry<Integer, Integer> match : distances.entrySet()) {
+            if (scores.size() >= candidates) {
+                return;
+            }
+            scores.merge(match.getKey(), FUZZY_SCORE + match.getValue(), Math::min);
+        }
+    }
+
+    private List<Term> similarTokens(String token) {
+        int maxEdits = maxEdits(token);
+        List<Term> similar = new ArrayList<>();
+        if (maxEdits == 0) {
+            Term exact = terms.get(token);
+            if (exact != null && exact.fuzzy) {
+                similar.add(exact);
+            }
+            return similar;
+        }
+        String[] trigrams = trigrams(token);
+        // An edit disturbs at most four trigrams (a transposition spans two characters), so a candidate within
+        // maxEdits shares at least this many trigrams with the token.
+        int required = Math.max(1, trigrams.length - 4 * maxEdits);
+        Map<Term, Integer> shared = new HashMap<>();
+        for (int length = token.length() - maxEdits; length <= token.length() + maxEdits; length++) {
+            for (String trigram : trigrams) {
+                List<Term> postings = tokensByTrigram.get(trigramKey(trigram, length));
+                if (postings == null) {
+                    continue;
+                }
+                synchronized (postings) {
+                    for (Term term : postings) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        shared.forEach((term, count) -> {
+            if (count >= required && editDistance(token, term.text, maxEdits) <= maxEdits) {
+                similar.add(term);
+            }
+        });
+        return similar;
+    }
+
+    private static int maxEdits(String token) {
+        return token.length() <= 3 ? 0 : token.length() <= 7 ? 1 : 2;
+    }
+
+    private static void score(Map<Integer, Integer> scores, Term term, int score, int candidates) {
+        for (int ordinal : term.ordinals.toArray()) {
+            if (scores.size() >= candidates && !scores.containsKey(ordinal)) {
+                return;
+            }
+            scores.merge(ordinal, score, Math::min);
+        }
+    }
+
+    private void addTerm(String text, int ordinal, boolean fuzzy) {
+        if (text.isEmpty()) {
+            return;
+        }
+        Term term = terms.get(text);
+        if (term == null) {
+            Term created = new Term(text);
+            term = terms.putIfAbsent(text, created);
+            if (term == null) {
+                term = created;
+            }
+        }
+        if (fuzzy && !term.fuzzy) {
+            synchronized (term) {
+                if (!term.fuzzy) {
+                    for (String trigram : trigrams(text)) {
+                        List<Term> postings = tokensByTrigram.computeIfAbsent(trigramKey(trigram, text.length()), k -> new ArrayList<>(2));
+                        synchronized (postings) {
+                            postings.add(term);
+                        }
+                    }
+                    term.fuzzy = true;
+                }
+            }
+        }
+        term.ordinals.add(ordinal);
+    }
+
+    private Patient[] slot(int ordinal) {
+        int segment = ordinal >>> SEGMENT_BITS;
+        Patient[] patients = segments.get(segment);
+        if (patients == null) {
+            segments.compareAndSet(segment, null, new Patient[SEGMENT_SIZE]);
+            patients = segments.get(segment);
+        }
+        return patients;
+    }
+
+    private static String trigramKey(String trigram, int length) {
+        return trigram + (char) length;
+    }
+
+    private static String[] trigrams(String text) {
+        String padded = "$" + text + "$";
+        String[] trigrams = new String[Math.max(1, padded.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = padded.substring(i, Math.min(i + 3, padded.length()));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Edit distance counting insertions, deletions, substitutions and adjacent transpositions, abandoned as soon as
+     * every alignment exceeds {@code maxEdits}.
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int end = normalized.length();
+        return (end > 0 && normalized.charAt(end - 1) == ' ' ? normalized.substring(0, end - 1) : normalized.toString()).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Term {
+        final String text;
+        final IntList ordinals = new IntList(1);
+        volatile boolean fuzzy;
+
+        Term(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.clinic;
+
+import java.io.IOException;
+
+/**
+ * Renders appointment receipts and invoices from templates that are split into literal segments once, so each
+ * receipt is a sequence of appends into a caller-supplied buffer with no format-string parsing per call.
+ */
+final class ReceiptRenderer {
+    public static final ReceiptRenderer EMOJI = new ReceiptRenderer(
+            """
+            🏥🧾 Clinic Appointment Receipt
+            ================================
+            📅 Appointment ID : {}
+            🧑 Patient Name   : {}
+            👩‍⚕️ Dermatologist: {}
+            📆 Date           : {}
+            ⏰ Time            : {}
+            💳 Payment Status  : {}
+            ================================
+            """,
+            """
+            🏥🧾 Clinic Invoice
+            ====================================
+            📅 Appointment ID : {}
+            🧑 Patient Name   : {}
+            💉 Treatment      : {}
+            ------------------------------------
+            💵 Treatment Cost : LKR {}
+            🪙 Registration Fee : LKR {}
+            💰 Tax (2.5%)      : LKR {}
+            ====================================
+            🧾 Total Amount   : LKR {}
+            ====================================
+            """,
+            "Paid ✅", "Pending ❌");
+
+    public static final ReceiptRenderer ASCII = new ReceiptRenderer(
+            """
+            Clinic Appointment Receipt
+            ================================
+            Appointment ID : {}
+            Patient Name   : {}
+            Dermatologist  : {}
+            Date           : {}
+            Time           : {}
+            Payment Status : {}
+            ================================
+            """,
+            """
+            Clinic Invoice
+            ================================
+            Appointment ID : {}
+            Patient Name   : {}
+            Treatment      : {}
+            --------------------------------
+            Treatment Cost : LKR {}
+            Registration   : LKR {}
+            Tax (2.5%)     : LKR {}
+            ================================
+            Total Amount   : LKR {}
+            ================================
+            """,
+            "Paid", "Pending");
+
+    private final String[] appointmentParts;
+    private final String[] invoiceParts;
+    private final String paidLabel;
+    private final String pendingLabel;
+
+    private ReceiptRenderer(String appointmentTemplate, String invoiceTemplate, String paidLabel, String pendingLabel) {
+        this.appointmentParts = compile(appointmentTemplate, 6);
+        this.invoiceParts = compile(invoiceTemplate, 7);
+        this.paidLabel = paidLabel;
+        this.pendingLabel = pendingLabel;
+    }
+
+    public String render(Appointment appointment) {
+        return appendTo(new StringBuilder(256), appointment).toString();
+    }
+
+    public String render(Invoice invoice) {
+        return appendTo(new StringBuilder(512), invoice).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out, Appointment appointment) {
+        String[] parts = appointmentParts;
+        Appointment.Slot slot = appointment.getSlot();
+        return out.append(parts[0]).append(appointment.getId())
+                .append(parts[1]).append(appointment.getPatient().getName())
+                .append(parts[2]).append(slot.dermatologist().getName())
+                .append(parts[3]).append(slot.date())
+                .append(parts[4]).append(slot.time())
+                .append(parts[5]).append(appointment.isPaid() ? paidLabel : pendingLabel)
+                .append(parts[6]);
+    }
+
+    public StringBuilder appendTo(StringBuilder out, Invoice invoice) {
+        String[] parts = invoiceParts;
+        Appointment appointment = invoice.getAppointment();
+        out.append(parts[0]).append(appointment.getId())
+                .append(parts[1]).append(appointment.getPatient().getName())
+                .append(parts[2]).append(invoice.getTreatmentType().name())
+                .append(parts[3]);
+        Money.appendTo(out, invoice.getTreatmentType().getPriceCents()).append(parts[4]);
+        Money.appendTo(out, Invoice.REGISTRATION_FEE_CENTS).append(parts[5]);
+        Money.appendTo(out, invoice.getTaxCents()).append(parts[6]);
+        return Money.appendTo(out, invoice.calculateTotal()).append(parts[7]);
+    }
+
+    public void writeTo(Appendable out, Appointment appointment, StringBuilder scratch) throws IOException {
+        scratch.setLength(0);
+        out.append(appendTo(scratch, appointment));
+    }
+
+    public void writeTo(Appendable out, Invoice invoice, StringBuilder scratch) throws IOException {
+        scratch.setLength(0);
+        out.append(appendTo(scratch, invoice));
+    }
+
+    private static String[] compile(String template, int fields) {
+        String[] parts = template.split("\\{\\}", -1);
+        if (parts.length != fields + 1) {
+            throw new IllegalArgumentException("Expected " + fields + " fields in receipt template but found " + (parts.length - 1));
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,9 @@
+package com.clinic;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Delivers appointment reminders. Implementations receive upcoming appointments in time-ordered batches. */
+interface ReminderNotifier {
+    void send(List<Appointment> appointments) throws IOException;
+}
@@ -0,0 +1,91 @@
+package com.clinic;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically sweeps the time index for appointments starting within the lead time and streams them, in batches, to
+ * a {@link ReminderNotifier}. Every sweep rescans the whole window from now, so appointments booked or rescheduled into
+ * it after an earlier sweep are still found; the time-index cursors already reminded are remembered until their slot
+ * starts, so each appointment is reminded once per slot. A batch that fails to send is retried on the next sweep. The
+ * reminded cursors live in memory, so reminders inside the lead time are sent again after a restart.
+ */
+class ReminderService implements AutoCloseable {
+    private static final int BATCH_SIZE = 256;
+
+    private final AppointmentRepository repository;
+    private final ReminderNotifier notifier;
+    private final Duration leadTime;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private final NavigableSet<Long> reminded = new TreeSet<>();
+
+    public ReminderService(AppointmentRepository repository, ReminderNotifier notifier, Duration leadTime) {
+        this(repository, notifier, leadTime, Clock.systemDefaultZone());
+    }
+
+    public ReminderService(AppointmentRepository repository, ReminderNotifier notifier, Duration leadTime, Clock clock) {
+        this.repository = repository;
+        this.notifier = notifier;
+        this.leadTime = leadTime;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "appointment-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration period) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (IOException | RuntimeException e) {
+                System.err.println(MessageFormatter.error("Reminder sweep failed: " + e.getMessage()));
+            }
+        }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Sends reminders for appointments from now until now plus the lead time; returns how many were sent. */
+    public synchronized int sweep() throws IOException {
+        LocalDateTime now = LocalDateTime.now(clock);
+        long cursor = AppointmentTimeIndex.cursorBefore(now);
+        reminded.headSet(cursor, true).clear();
+        int sent = 0;
+        AppointmentBatch batch;
+        while (!(batch = repository.findBetween(cursor, now.plus(leadTime), BATCH_SIZE)).isEmpty()) {
+            List<Appointment> due = new ArrayList<>(batch.appointments().size());
+            List<Long> dueCursors = new ArrayList<>(batch.appointments().size());
+            for (Appointment appointment : batch.appointments()) {
+                Appointment.Slot slot = appointment.getSlot();
+                long appointmentCursor = AppointmentTimeIndex.cursor(IsoDates.parseDate(slot.date()),
+                        IsoDates.parseTime(slot.time()), appointment.getId());
+                if (!reminded.contains(appointmentCursor)) {
+                    due.add(appointment);
+                    dueCursors.add(appointmentCursor);
+                }
+            }
+            if (!due.isEmpty()) {
+                notifier.send(due);
+                reminded.addAll(dueCursors);
+                sent += due.size();
+            }
+            cursor = batch.lastCursor();
+        }
+        return sent;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package com.clinic;
+
+record ServiceResult<T>(Outcome outcome, T value, String message) {
+    public static <T> ServiceResult<T> success(T value, String message) {
+        return new ServiceResult<>(Outcome.SUCCESS, value, message);
+    }
+
+    public static <T> ServiceResult<T> failure(Outcome outcome, String message) {
+        return new ServiceResult<>(outcome, null, message);
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+}
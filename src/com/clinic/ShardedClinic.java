@@ -0,0 +1,157 @@
+package com.clinic;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Routes work to per-branch {@link ClinicShard}s. Bookings go to the shard that owns the branch, and within a shard
+ * each doctor's slots live in their own calendar bitmaps, so bookings for different branches or doctors never contend.
+ * Queries that span branches, such as patient history and daily revenue, fan out to every shard in parallel.
+ *
+ * <p>Each branch keeps its files in its own subdirectory of the data directory. Data left in the data directory itself
+ * by earlier single-branch versions is moved into the first branch's subdirectory on open.
+ */
+class ShardedClinic implements AutoCloseable {
+    private static final Comparator<Appointment> CHRONOLOGICAL = Comparator.comparing(Appointment::getSlot,
+            Comparator.comparing(Appointment.Slot::date).thenComparing(Appointment.Slot::time))
+            .thenComparingInt(Appointment::getId);
+
+    /** How each shard keeps its appointments: a replayed write-ahead log, or a memory-mapped record file. */
+    enum Storage { LOG, MAPPED }
+
+    private final Map<String, ClinicShard> shardsByBranch = new LinkedHashMap<>();
+    private final List<ClinicShard> shards;
+    private final AppointmentOwnership ownership;
+
+    public ShardedClinic(List<ClinicShard> shards) {
+        this(shards, new AppointmentOwnership());
+    }
+
+    /** Shards opened with {@code ownership} already claimed their IDs while loading, so joining them costs no scan. */
+    private ShardedClinic(List<ClinicShard> shards, AppointmentOwnership ownership) {
+        this.ownership = ownership;
+        for (ClinicShard shard : shards) {
+            if (shardsByBranch.putIfAbsent(shard.getBranch().name(), shard) != null) {
+                throw new IllegalArgumentException("Duplicate branch " + shard.getBranch().name());
+            }
+        }
+        this.shards = List.copyOf(shards);
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).getRepository().shareIds(ownership, i + 1);
+        }
+    }
+
+    public static ShardedClinic open(Path directory, List<ClinicBranch> branches) throws IOException {
+        return open(directory, branches, Storage.LOG);
+    }
+
+    public static ShardedClinic open(Path directory, List<ClinicBranch> branches, Storage storage) throws IOException {
+        // Names that differ only in case or punctuation map to the same directory; two logs on one file corrupt it.
+        Map<String, String> branchByDirectory = new HashMap<>();
+        for (ClinicBranch branch : branches) {
+            String other = branchByDirectory.putIfAbsent(branch.directoryName(), branch.name());
+            if (other != null) {
+                throw new IllegalArgumentException("Branches " + other + " and " + branch.name()
+                        + " would share the directory " + branch.directoryName());
+            }
+        }
+        List<ClinicShard> shards = new ArrayList<>(branches.size());
+        AppointmentOwnership ownership = new AppointmentOwnership();
+        try {
+            migrateRootData(directory, directory.resolve(branches.get(0).directoryName()));
+            for (ClinicBranch branch : branches) {
+                Path branchDirectory = directory.resolve(branch.directoryName());
+                int owner = shards.size() + 1;
+                AppointmentRepository repository = storage == Storage.MAPPED
+                        ? AppointmentRepository.openMapped(branchDirectory, branch.roster(), ownership, owner)
+                        : AppointmentRepository.open(branchDirectory, branch.roster(), ownership, owner);
+                shards.add(new ClinicShard(branch, repository));
+            }
+        } catch (IOException | RuntimeException e) {
+            shards.forEach(ClinicShard::close);
+            throw e;
+        }
+        return new ShardedClinic(shards, ownership);
+    }
+
+    public List<ClinicShard> getShards() { return shards; }
+    public ClinicShard getShard(String branch) { return shardsByBranch.get(branch); }
+
+    public ClinicShard findShardOwning(int appointmentId) {
+        int owner = ownership.ownerOf(appointmentId);
+        return owner == 0 ? null : shards.get(owner - 1);
+    }
+
+    public ServiceResult<Appointment> book(String branch, BookingRequest request) {
+        ClinicShard shard = shardsByBranch.get(branch);
+        if (shard == null) {
+            return ServiceResult.failure(Outcome.NOT_FOUND, "Unknown branch " + branch + ".");
+        }
+        return shard.getAppointmentService().book(request);
+    }
+
+    /** Every appointment the patient has at any branch, oldest first. */
+    public List<Appointment> patientHistory(String nic) {
+        return shards.parallelStream()
+                .flatMap(shard -> shard.getRepository().findByNic(nic).stream())
+                .sorted(CHRONOLOGICAL)
+                .toList();
+    }
+
+    public List<Appointment> search(String query) {
+        return shards.parallelStream()
+                .flatMap(shard -> shard.getAppointmentService().searchAppointment(query).stream())
+                .toList();
+    }
+
+    /** Invoiced revenue per branch for appointments on the given date, in branch order. */
+    public Map<String, Long> dailyRevenueCents(LocalDate date) {
+        long[] revenue = shards.parallelStream().mapToLong(shard -> shard.getRepository().revenueCents(date)).toArray();
+        Map<String, Long> revenueByBranch = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            revenueByBranch.put(shards.get(i).getBranch().name(), revenue[i]);
+        }
+        return revenueByBranch;
+    }
+
+    /** Moves appointment and patient files from the data directory into {@code target}, resuming a partial move. */
+    private static void migrateRootData(Path directory, Path target) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> legacy;
+        try (Stream<Path> files = Files.list(directory)) {
+            legacy = files.filter(Files::isRegularFile).filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith("appointments.") || name.equals("patients.dat");
+            }).toList();
+        }
+        if (legacy.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(target);
+        for (Path file : legacy) {
+            Path moved = target.resolve(file.getFileName());
+            if (Files.exists(moved)) {
+                throw new FileAlreadyExistsException(moved.toString(), file.toString(), "branch data exists in both places");
+            }
+            Files.move(file, moved, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.parallelStream().forEach(ClinicShard::close);
+    }
+}
@@ -0,0 +1,117 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class SlotCalendar {
+    public static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final Map<DayKey, AtomicLongArray> bookedSlots = new ConcurrentHashMap<>();
+
+    public boolean reserve(Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        return reserve(dermatologist, date.toEpochDay(), slotOf(time));
+    }
+
+    boolean reserve(Dermatologist dermatologist, long epochDay, int slot) {
+        AtomicLongArray day = bookedSlots.computeIfAbsent(new DayKey(dermatologist, epochDay), k -> new AtomicLongArray(WORDS_PER_DAY));
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            long current = day.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (day.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        AtomicLongArray day = bookedSlots.get(new DayKey(dermatologist, date.toEpochDay()));
+        if (day == null) {
+            return;
+        }
+        int slot = slotOf(time);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        long current;
+        do {
+            current = day.get(word);
+        } while ((current & bit) != 0 && !day.compareAndSet(word, current, current & ~bit));
+    }
+
+    public boolean isFree(Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        AtomicLongArray day = bookedSlots.get(new DayKey(dermatologist, date.toEpochDay()));
+        int slot = slotOf(time);
+        return day == null || (day.get(slot >>> 6) & (1L << slot)) == 0;
+    }
+
+    public List<LocalTime> freeSlots(Dermatologist dermatologist, LocalDate date) {
+        return nextFreeSlots(dermatologist, date, LocalTime.MIN, Integer.MAX_VALUE);
+    }
+
+    public List<LocalTime> nextFreeSlots(Dermatologist dermatologist, LocalDate date, LocalTime from, int limit) {
+        List<LocalTime> slots = new ArrayList<>();
+        AtomicLongArray day = bookedSlots.get(new DayKey(dermatologist, date.toEpochDay()));
+        int first = Math.max(slotOf(dermatologist.getStartTime()), ceilSlotOf(from));
+        int end = ceilSlotOf(dermatologist.getEndTime());
+        if (end <= first) {
+            return slots;
+        }
+        for (int word = first >>> 6; word <= (end - 1) >>> 6 && slots.size() < limit; word++) {
+            long free = windowMask(word, first, end) & ~(day == null ? 0L : day.get(word));
+            while (free != 0 && slots.size() < limit) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(free);
+                slots.add(LocalTime.MIN.plusMinutes((long) slot * SLOT_MINUTES));
+                free &= free - 1;
+            }
+        }
+        return slots;
+    }
+
+    private static long windowMask(int word, int first, int end) {
+        int lo = Math.max(first - (word << 6), 0);
+        int hi = Math.min(end - (word << 6), Long.SIZE);
+        if (hi <= lo) {
+            return 0L;
+        }
+        long upper = hi == Long.SIZE ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    /** Bookable slots within the doctor's working hours on the given date; zero on days off. */
+    static int workingSlots(Dermatologist dermatologist, LocalDate date) {
+        if (!dermatologist.worksOn(date.getDayOfWeek())) {
+            return 0;
+        }
+        return Math.max(0, ceilSlotOf(dermatologist.getEndTime()) - ceilSlotOf(dermatologist.getStartTime()));
+    }
+
+    /** Whether {@code time} starts a slot within the doctor's working hours on a day they work, past or future. */
+    static boolean isWorkingSlot(Dermatologist dermatologist, LocalDate date, LocalTime time) {
+        return dermatologist.worksOn(date.getDayOfWeek())
+                && !time.isBefore(dermatologist.getStartTime())
+                && time.isBefore(dermatologist.getEndTime())
+                && time.getMinute() % SLOT_MINUTES == 0
+                && time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    static int slotOf(LocalTime time) {
+        return time.toSecondOfDay() / 60 / SLOT_MINUTES;
+    }
+
+    private static int ceilSlotOf(LocalTime time) {
+        int minutes = time.toSecondOfDay() / 60;
+        return (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    private record DayKey(Dermatologist dermatologist, long epochDay) {}
+}
@@ -0,0 +1,6 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+record TimeSlot(Dermatologist dermatologist, LocalDate date, LocalTime time) {}
@@ -1,12 +1,12 @@
 package com.clinic;
 
 enum TreatmentType {
-    ACNE(2750.00),
-    SKIN_WHITENING(7650.00),
-    MOLE_REMOVAL(3850.00),
-    LASER_TREATMENT(12500.00);
+    ACNE(275_000),
+    SKIN_WHITENING(765_000),
+    MOLE_REMOVAL(385_000),
+    LASER_TREATMENT(1_250_000);
 
-    private final double price;
-    TreatmentType(double price) { this.price = price; }
-    public double getPrice() { return price; }
-}
\ No newline at end of file
+    private final long priceCents;
+    TreatmentType(long priceCents) { this.priceCents = priceCents; }
+    public long getPriceCents() { return priceCents; }
+}
@@ -0,0 +1,8 @@
+package com.clinic;
+
+record ValidationError(int row, String field, String value) {
+    @Override
+    public String toString() {
+        return "Row " + row + ": invalid " + field + " '" + value + "'";
+    }
+}
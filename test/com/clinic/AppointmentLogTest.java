@@ -0,0 +1,176 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayRestoresSavesUpdatesAndPayments() throws IOException {
+        Appointment first = TestData.appointment(TestData.patient(1), 0);
+        Appointment second = TestData.appointment(TestData.patient(2), 1);
+        Appointment moved = TestData.appointment(first.getPatient(), 500);
+        Appointment originalSlot = new Appointment(TestData.patient(3), first.getDermatologist(), first.getDate(), first.getTime());
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertTrue(repository.save(first));
+            assertTrue(repository.save(second));
+            assertTrue(repository.update(first, moved.getDermatologist(), moved.getDate(), moved.getTime()));
+            repository.markAsPaid(second, TreatmentType.MOLE_REMOVAL);
+        }
+
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertEquals(2, repository.size());
+            Appointment restored = repository.findById(first.getId());
+            assertEquals(moved.getDermatologist().getName(), restored.getDermatologist().getName());
+            assertEquals(moved.getDate(), restored.getDate());
+            assertEquals(moved.getTime(), restored.getTime());
+            assertFalse(restored.isPaid());
+            assertEquals(TreatmentType.MOLE_REMOVAL, repository.findById(second.getId()).getTreatmentType());
+            // The slot calendar is rebuilt too: the original slot is free again, the new one is taken.
+            assertTrue(repository.save(originalSlot));
+            assertFalse(repository.save(new Appointment(TestData.patient(4), moved.getDermatologist(), moved.getDate(), moved.getTime())));
+        }
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        writeAppointments(3);
+        Files.write(directory.resolve("appointments.wal"), new byte[] {0, 0, 0, 40, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertEquals(3, repository.size());
+        }
+    }
+
+    @Test
+    void recordWithBadChecksumEndsReplay() throws IOException {
+        Appointment[] appointments = writeAppointments(3);
+        Path log = directory.resolve("appointments.wal");
+        byte[] bytes = Files.readAllBytes(log);
+        // Flip a payload byte of the last record; its trailing four bytes are the CRC.
+        bytes[bytes.length - 6] ^= 0x5A;
+        Files.write(log, bytes);
+
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertEquals(2, repository.size());
+            assertNull(repository.findById(appointments[2].getId()));
+        }
+    }
+
+    @Test
+    void appendsAfterATornTailSurviveTheNextRestart() throws IOException {
+        writeAppointments(2);
+        Files.write(directory.resolve("appointments.wal"), new byte[] {0, 0, 0, 40, 1}, StandardOpenOption.APPEND);
+        Appointment later = TestData.appointment(TestData.patient(9), 9);
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertTrue(repository.save(later));
+        }
+
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertEquals(3, repository.size());
+            assertEquals(later.getTime(), repository.findById(later.getId()).getTime());
+        }
+    }
+
+    @Test
+    void backgroundCompactionFoldsRotatedSegmentsIntoTheSnapshot() throws IOException {
+        Map<Integer, Appointment> written = new HashMap<>();
+        AppointmentLog log = new AppointmentLog(directory, 10);
+        log.replay(TestData.ROSTER::findByName, collecting(new HashMap<>()));
+        log.start();
+        List<CompletableFuture<Void>> committed = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Appointment appointment = TestData.appointment(TestData.patient(i), i);
+            written.put(appointment.getId(), appointment);
+            committed.add(log.appendSave(appointment));
+            if (i % 2 == 0) {
+                appointment.markAsPaid(TreatmentType.ACNE);
+                committed.add(log.appendPaid(appointment));
+            }
+        }
+        committed.forEach(CompletableFuture::join);
+        log.close();
+
+        assertTrue(Files.exists(directory.resolve("appointments.snapshot")));
+        Map<Integer, Appointment> replayed = new HashMap<>();
+        new AppointmentLog(directory).replay(TestData.ROSTER::findByName, collecting(replayed));
+        assertEquals(written.keySet(), replayed.keySet());
+        written.forEach((id, appointment) -> assertEquals(appointment.getTreatmentType(), replayed.get(id).getTreatmentType()));
+    }
+
+    @Test
+    void appendsAfterCloseFailInsteadOfWaitingForever() throws IOException {
+        AppointmentLog log = new AppointmentLog(directory);
+        log.replay(TestData.ROSTER::findByName, collecting(new HashMap<>()));
+        log.start();
+        log.close();
+
+        CompletableFuture<Void> late = log.appendSave(TestData.appointment(TestData.patient(1), 0));
+        assertThrows(CompletionException.class, late::join);
+    }
+
+    @Test
+    void aWriteThatIsNotDurableTakesTheRepositoryOutOfService() {
+        AppointmentRepository repository = new AppointmentRepository(new HeapAppointmentStore() {
+            @Override
+            public void sync() {
+                throw new UncheckedIOException(new IOException("disk full"));
+            }
+        });
+        Appointment appointment = TestData.appointment(TestData.patient(1), 0);
+
+        assertThrows(UncheckedIOException.class, () -> repository.save(appointment));
+        assertThrows(IllegalStateException.class, () -> repository.findById(appointment.getId()));
+        assertThrows(IllegalStateException.class, () -> repository.save(TestData.appointment(TestData.patient(2), 1)));
+    }
+
+    private static AppointmentLog.Listener collecting(Map<Integer, Appointment> appointments) {
+        return new AppointmentLog.Listener() {
+            @Override
+            public void onSave(Appointment appointment) {
+                appointments.put(appointment.getId(), appointment);
+            }
+
+            @Override
+            public void onUpdate(int id, Dermatologist dermatologist, String date, String time) {
+                appointments.get(id).setDate(date);
+            }
+
+            @Override
+            public void onPaid(int id, TreatmentType treatmentType) {
+                appointments.get(id).markAsPaid(treatmentType);
+            }
+        };
+    }
+
+    private Appointment[] writeAppointments(int count) throws IOException {
+        Appointment[] appointments = new Appointment[count];
+        try (AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            for (int i = 0; i < count; i++) {
+                appointments[i] = TestData.appointment(TestData.patient(i), i);
+                assertTrue(repository.save(appointments[i]));
+            }
+        }
+        return appointments;
+    }
+}
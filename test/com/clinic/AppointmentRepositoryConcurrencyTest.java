@@ -0,0 +1,135 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Many reception desks booking, updating and searching one repository at the same time. */
+class AppointmentRepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int SLOTS = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void racingDesksBookEachSlotExactlyOnce() throws Exception {
+        AppointmentRepository repository = new AppointmentRepository();
+        AtomicInteger booked = new AtomicInteger();
+        long started = System.nanoTime();
+        runConcurrently(desk -> {
+            for (int i = 0; i < SLOTS; i++) {
+                // Every desk races for every slot with its own appointment; exactly one may win.
+                if (repository.save(TestData.appointment(TestData.patient(i % 1000), i))) {
+                    booked.incrementAndGet();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - started;
+        System.out.printf("racing desks: %d attempts in %d ms (%.0f attempts/s)%n", THREADS * SLOTS, elapsed / 1_000_000,
+                THREADS * SLOTS * 1e9 / elapsed);
+
+        assertEquals(SLOTS, booked.get());
+        assertEquals(SLOTS, repository.size());
+        assertDistinctIdsAndSlots(repository.findAll(), SLOTS);
+    }
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void concurrentBookingsUpdatesAndSearchesLoseNothing() throws Exception {
+        AppointmentRepository repository = AppointmentRepository.open(directory, TestData.ROSTER);
+        int perDesk = SLOTS / THREADS;
+        AtomicInteger searches = new AtomicInteger();
+        long started = System.nanoTime();
+        runConcurrently(desk -> {
+            for (int i = 0; i < perDesk; i++) {
+                int slot = desk * perDesk + i;
+                Appointment appointment = TestData.appointment(TestData.patient(slot), slot);
+                assertTrue(repository.save(appointment));
+                if (i % 10 == 0) {
+                    // Move into a slot of this desk's own range that no booking uses, far beyond the booked days.
+                    Appointment target = TestData.appointment(appointment.getPatient(), SLOTS * 2 + slot);
+                    assertTrue(repository.update(appointment, target.getDermatologist(), target.getDate(), target.getTime()));
+                }
+                if (i % 5 == 0 && !repository.search(appointment.getPatient().getName()).isEmpty()) {
+                    searches.incrementAndGet();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - started;
+        System.out.printf("mixed desks: %d bookings in %d ms (%.0f bookings/s, durable)%n", SLOTS, elapsed / 1_000_000, SLOTS * 1e9 / elapsed);
+
+        assertEquals(SLOTS / 5, searches.get());
+        assertEquals(SLOTS, repository.size());
+        assertDistinctIdsAndSlots(repository.findAll(), SLOTS);
+        List<Appointment> before = repository.findAll();
+        repository.close();
+
+        AppointmentRepository reopened = AppointmentRepository.open(directory, TestData.ROSTER);
+        try {
+            assertEquals(SLOTS, reopened.size());
+            for (Appointment appointment : before) {
+                Appointment restored = reopened.findById(appointment.getId());
+                assertNotNull(restored, "lost appointment " + appointment.getId());
+                assertEquals(appointment.getDate() + " " + appointment.getTime(), restored.getDate() + " " + restored.getTime());
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static void assertDistinctIdsAndSlots(List<Appointment> appointments, int expected) {
+        Set<Integer> ids = new HashSet<>();
+        Set<String> slots = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            ids.add(appointment.getId());
+            slots.add(appointment.getDermatologist().getName() + " " + appointment.getDate() + " " + appointment.getTime());
+        }
+        assertEquals(expected, ids.size(), "duplicate appointment IDs");
+        assertEquals(expected, slots.size(), "double-booked slots");
+    }
+
+    private interface Desk {
+        void run(int desk) throws Exception;
+    }
+
+    private static void runConcurrently(Desk desk) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> running = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                running.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    desk.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
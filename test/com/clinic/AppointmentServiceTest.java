@@ -0,0 +1,48 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.List;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentServiceTest {
+    private static final Dermatologist SILVA = TestData.ROSTER.findByName("Dr. Silva");
+
+    private final AppointmentRepository repository = new AppointmentRepository();
+    private final AppointmentService service = new AppointmentService(repository, TestData.ROSTER,
+            new ClinicMetrics(TestData.ROSTER, repository::size),
+            Clock.fixed(TestData.MONDAY.atTime(10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    @Test
+    void onlyWorkingSlotsThatHaveNotStartedAreBookable() {
+        assertTrue(service.isBookable(SILVA, TestData.MONDAY, LocalTime.of(10, 15)));
+        assertFalse(service.isBookable(SILVA, TestData.MONDAY, LocalTime.of(10, 0)));
+        assertFalse(service.isBookable(SILVA, TestData.MONDAY.minusWeeks(1), LocalTime.of(10, 15)));
+        assertFalse(service.isBookable(SILVA, TestData.MONDAY.plusDays(1), LocalTime.of(10, 15)));
+        assertFalse(service.isBookable(SILVA, TestData.MONDAY, LocalTime.of(10, 7)));
+        assertFalse(service.isBookable(SILVA, TestData.MONDAY, LocalTime.of(17, 0)));
+    }
+
+    @Test
+    void bookingInThePastIsRejectedAsInvalid() {
+        ServiceResult<Appointment> result = service.book(new BookingRequest(TestData.patient(1), SILVA,
+                TestData.MONDAY.minusWeeks(1), LocalTime.of(10, 15)));
+        assertEquals(Outcome.INVALID, result.outcome());
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void noShowsAreThoseUnpaidAppointmentsBeforeTheInjectedClock() {
+        Appointment nine = new Appointment(TestData.patient(1), SILVA, TestData.MONDAY.toString(), "09:00");
+        assertTrue(repository.save(nine));
+        assertTrue(repository.save(new Appointment(TestData.patient(2), SILVA, TestData.MONDAY.toString(), "11:00")));
+
+        assertEquals(List.of(nine), service.getNoShows(TestData.MONDAY));
+    }
+}
@@ -0,0 +1,59 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void quotedFieldsRoundTrip() throws IOException {
+        Path file = directory.resolve("round-trip.csv");
+        List<String> tricky = List.of("plain", "comma, inside", "say \"hi\"", "two\nlines", "", "ünïcödé");
+        try (CsvWriter writer = new CsvWriter(file)) {
+            writer.record(tricky.toArray(String[]::new));
+            writer.field("id").field(42).endRecord();
+        }
+
+        try (CsvReader reader = new CsvReader(file)) {
+            assertEquals(tricky, reader.readRecord());
+            assertEquals(List.of("id", "42"), reader.readRecord());
+            assertEquals(2, reader.getRecordNumber());
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void readerAcceptsCrlfAndSkipsBlankLines() throws IOException {
+        Path file = directory.resolve("windows.csv");
+        Files.writeString(file, "a,b\r\n\r\n\"c\"\"d\",e\r\nlast,", StandardCharsets.UTF_8);
+
+        try (CsvReader reader = new CsvReader(file)) {
+            assertEquals(List.of("a", "b"), reader.readRecord());
+            assertEquals(List.of("c\"d", "e"), reader.readRecord());
+            assertEquals(List.of("last", ""), reader.readRecord());
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() throws IOException {
+        Path file = directory.resolve("broken.csv");
+        Files.writeString(file, "\"never closed,1\n", StandardCharsets.UTF_8);
+
+        try (CsvReader reader = new CsvReader(file)) {
+            assertThrows(IOException.class, reader::readRecord);
+        }
+    }
+}
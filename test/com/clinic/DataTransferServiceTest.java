@@ -0,0 +1,84 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataTransferServiceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void importAcceptsPastWorkingSlotsAndRejectsOffHoursAndForeignIds() throws IOException {
+        ClinicBranch main = new ClinicBranch("Main", DermatologistRoster.defaultRoster());
+        ClinicBranch city = new ClinicBranch("City", DermatologistRoster.defaultRoster());
+        ShardedClinic clinic = new ShardedClinic(List.of(new ClinicShard(main, new AppointmentRepository()),
+                new ClinicShard(city, new AppointmentRepository())));
+        Dermatologist citySilva = city.roster().findByName("Dr. Silva");
+        Appointment booked = new Appointment(TestData.patient(1), citySilva, TestData.MONDAY.toString(), "09:00");
+        assertTrue(clinic.getShard("City").getRepository().save(booked));
+
+        Path file = directory.resolve("import.csv");
+        Files.writeString(file, """
+                id,nic,name,email,phone,doctor,date,time,paid,treatment
+                ,NIC200000001,Ann Perera,ann@clinic.lk,0771234567,Dr. Silva,2020-01-06,10:00,true,ACNE
+                ,NIC200000002,Ben Silva,ben@clinic.lk,0771234567,Dr. Silva,2030-01-07,09:07,false,
+                ,NIC200000003,Cal Dias,cal@clinic.lk,0771234567,Dr. Silva,2030-01-06,10:00,false,
+                ,NIC200000004,Dee Fonseka,dee@clinic.lk,0771234567,Dr. Silva,2030-01-07,17:00,false,
+                %d,NIC200000005,Eve Gomes,eve@clinic.lk,0771234567,Dr. Silva,2030-01-09,10:00,false,
+                """.formatted(booked.getId()), StandardCharsets.UTF_8);
+
+        AppointmentRepository repository = clinic.getShard("Main").getRepository();
+        ImportReport report = new DataTransferService(repository, main.roster()).importCsv(file);
+
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals("Ann Perera", repository.findAll().get(0).getPatient().getName());
+        assertEquals("City", clinic.findShardOwning(booked.getId()).getBranch().name());
+    }
+
+    @Test
+    void corruptBinaryRowsAreRejectedWithoutEndingTheImport() throws IOException {
+        Path file = directory.resolve("import.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x434C4E58);
+            out.writeByte(2);
+            out.writeByte(1);
+            out.writeUTF("Dr. Silva");
+            out.writeByte(2);
+            for (String field : new String[] {"NIC200000001", "Ann Perera", "ann@clinic.lk", "0771234567"}) {
+                out.writeUTF(field);
+            }
+            int nineAm = 9 * 3600;
+            int[][] rows = {{0, 0, nineAm, 0}, {7, 0, nineAm + 3600, 0}, {0, 3, nineAm + 7200, 0}, {0, 0, 999_999, 0}, {0, 0, nineAm + 10800, 42}};
+            for (int[] row : rows) {
+                out.writeByte(3);
+                out.writeInt(0);
+                out.writeInt(row[0]);
+                out.writeShort(row[1]);
+                out.writeInt((int) TestData.MONDAY.toEpochDay());
+                out.writeInt(row[2]);
+                out.writeBoolean(false);
+                out.writeByte(row[3]);
+            }
+            out.writeByte(0);
+            out.writeLong(rows.length);
+        }
+
+        AppointmentRepository repository = new AppointmentRepository();
+        ImportReport report = new DataTransferService(repository, DermatologistRoster.defaultRoster()).importBinary(file);
+
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals("09:00", repository.findAll().get(0).getTime());
+    }
+}
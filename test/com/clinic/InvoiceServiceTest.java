@@ -0,0 +1,65 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoiceServiceTest {
+    private final AppointmentRepository repository = new AppointmentRepository();
+    private final ClinicMetrics metrics = new ClinicMetrics(TestData.ROSTER, repository::size);
+    private final InvoiceService invoiceService = new InvoiceService(repository, metrics);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reInvoicingReplacesRevenueInMetricsAndAnalyticsAlike() {
+        Appointment appointment = TestData.appointment(TestData.patient(1), 0);
+        assertTrue(repository.save(appointment));
+
+        invoiceService.generateInvoice(new BillingRequest(appointment.getId(), TreatmentType.LASER_TREATMENT));
+        invoiceService.generateInvoice(new BillingRequest(appointment.getId(), TreatmentType.ACNE));
+        invoiceService.generateInvoice(new BillingRequest(appointment.getId(), TreatmentType.ACNE));
+
+        long analyticsRevenue = repository.revenueCents(LocalDate.parse(appointment.getDate()));
+        assertEquals(Invoice.totalCents(TreatmentType.ACNE), analyticsRevenue);
+        assertEquals(analyticsRevenue, metrics.getRevenueCents());
+    }
+
+    @Test
+    void csvBillingRunReadsQuotedFieldsAndReplacesEarlierInvoices() throws IOException {
+        Appointment first = TestData.appointment(TestData.patient(1), 0);
+        Appointment second = TestData.appointment(TestData.patient(2), 1);
+        assertTrue(repository.save(first));
+        assertTrue(repository.save(second));
+        invoiceService.generateInvoice(new BillingRequest(first.getId(), TreatmentType.LASER_TREATMENT));
+
+        Path file = directory.resolve("billing.csv");
+        Files.writeString(file, """
+                "appointment id","treatment, as billed"
+                "%d",acne
+                %d,"MOLE_REMOVAL"
+                %d,FACELIFT
+                999999,ACNE
+                """.formatted(first.getId(), second.getId(), second.getId()), StandardCharsets.UTF_8);
+        BillingRun run = invoiceService.billFromCsv(file);
+
+        assertEquals(2, run.getInvoices().size());
+        assertEquals(2, run.getRejected().size());
+        assertEquals(Invoice.totalCents(TreatmentType.ACNE) + Invoice.totalCents(TreatmentType.MOLE_REMOVAL), run.getTotalCents());
+        assertEquals(TreatmentType.ACNE, repository.findById(first.getId()).getTreatmentType());
+        long analyticsRevenue = Stream.of(first, second).map(Appointment::getDate).distinct()
+                .mapToLong(date -> repository.revenueCents(LocalDate.parse(date))).sum();
+        assertEquals(run.getTotalCents(), analyticsRevenue);
+        assertEquals(analyticsRevenue, metrics.getRevenueCents());
+    }
+}
@@ -0,0 +1,50 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoiceTest {
+    /** Tax and total in cents per treatment: 2.5% of the price plus the LKR 500 registration fee. */
+    private static final Map<TreatmentType, long[]> EXPECTED = Map.of(
+            TreatmentType.ACNE, new long[] {8_125, 333_125},
+            TreatmentType.SKIN_WHITENING, new long[] {20_375, 835_375},
+            TreatmentType.MOLE_REMOVAL, new long[] {10_875, 445_875},
+            TreatmentType.LASER_TREATMENT, new long[] {32_500, 1_332_500});
+
+    @Test
+    void taxAndTotalMatchTheRenderedReceiptForEveryTreatment() {
+        Appointment appointment = TestData.appointment(TestData.patient(1), 0);
+        for (TreatmentType type : TreatmentType.values()) {
+            Invoice invoice = new Invoice(appointment, type);
+            long[] expected = EXPECTED.get(type);
+            assertEquals(expected[0], invoice.getTaxCents(), type.name());
+            assertEquals(expected[1], invoice.calculateTotal(), type.name());
+            assertEquals(expected[1], Invoice.totalCents(type), type.name());
+
+            String receipt = ReceiptRenderer.ASCII.render(invoice);
+            assertTrue(receipt.contains("Tax (2.5%)     : LKR " + Money.format(expected[0]) + "\n"), receipt);
+            assertTrue(receipt.contains("Total Amount   : LKR " + Money.format(expected[1]) + "\n"), receipt);
+        }
+        assertTrue(ReceiptRenderer.ASCII.render(new Invoice(appointment, TreatmentType.ACNE)).contains("LKR 3331.25\n"));
+    }
+
+    @Test
+    void taxRoundsHalfCentsUp() {
+        assertEquals(0, Invoice.taxCents(19));
+        assertEquals(1, Invoice.taxCents(20));
+        assertEquals(2, Invoice.taxCents(60));
+        assertEquals(2_500, Invoice.taxCents(100_019));
+        assertEquals(2_501, Invoice.taxCents(100_020));
+        for (long subtotal = 0; subtotal < 10_000; subtotal++) {
+            long reference = BigDecimal.valueOf(subtotal).multiply(new BigDecimal("0.025"))
+                    .setScale(0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(reference, Invoice.taxCents(subtotal), "subtotal " + subtotal);
+        }
+    }
+}
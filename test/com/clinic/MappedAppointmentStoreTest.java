@@ -0,0 +1,97 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedAppointmentStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenRebuildsIndexesFromTheMappedRecords() throws IOException {
+        Patient patient = TestData.patient(1);
+        Appointment first = TestData.appointment(patient, 0);
+        Appointment second = TestData.appointment(patient, 1);
+        Appointment moved = TestData.appointment(patient, 700);
+        Appointment originalSlot = new Appointment(TestData.patient(2), first.getDermatologist(), first.getDate(), first.getTime());
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            assertTrue(repository.save(first));
+            assertTrue(repository.save(second));
+            assertTrue(repository.update(first, moved.getDermatologist(), moved.getDate(), moved.getTime()));
+            repository.markAsPaid(second, TreatmentType.MOLE_REMOVAL);
+        }
+
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            assertEquals(2, repository.size());
+            Appointment restored = repository.findById(first.getId());
+            assertEquals(moved.getDermatologist().getName(), restored.getDermatologist().getName());
+            assertEquals(moved.getDate(), restored.getDate());
+            assertEquals(moved.getTime(), restored.getTime());
+            assertEquals(2, repository.findByNic(patient.getNic()).size());
+            assertEquals(2, repository.search(patient.getName()).size());
+            assertEquals(Invoice.totalCents(TreatmentType.MOLE_REMOVAL), repository.revenueCents(LocalDate.parse(second.getDate())));
+            assertEquals(1, repository.findAgenda(moved.getDermatologist(), LocalDate.parse(moved.getDate())).size());
+            assertTrue(repository.save(originalSlot));
+            assertFalse(repository.save(new Appointment(TestData.patient(3), moved.getDermatologist(), moved.getDate(), moved.getTime())));
+        }
+    }
+
+    @Test
+    void recordsPastTheFirstSegmentSurviveReopen() throws IOException {
+        Appointment template = TestData.appointment(TestData.patient(4), 0);
+        Appointment distant = new Appointment((1 << 20) + 5, template.getPatient(), template.getDermatologist(),
+                template.getDate(), template.getTime(), false);
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            assertTrue(repository.save(distant));
+        }
+
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            assertNotNull(repository.findById(distant.getId()));
+            assertFalse(repository.save(new Appointment(TestData.patient(5), distant.getDermatologist(), distant.getDate(), distant.getTime())));
+        }
+    }
+
+    @Test
+    void tornPatientRecordsEndTheTableInsteadOfFailingTheOpen() throws IOException {
+        Appointment appointment = TestData.appointment(TestData.patient(6), 0);
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            assertTrue(repository.save(appointment));
+        }
+        Path patients = directory.resolve("patients.dat");
+        long validBytes = Files.size(patients);
+
+        for (byte[] tail : new byte[][] {{-1, -1, -1, -1, 1, 2}, {0, 0, 0, 4, 0, 2, (byte) 0xC0, 0x20}}) {
+            Files.write(patients, tail, StandardOpenOption.APPEND);
+            try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+                assertEquals(1, repository.size());
+                assertEquals(appointment.getPatient().getName(), repository.findById(appointment.getId()).getPatient().getName());
+            }
+            assertEquals(validBytes, Files.size(patients));
+        }
+    }
+
+    @Test
+    void importedIdsBeyondTheStoreCapacityAreRejected() throws IOException {
+        Path file = directory.resolve("import.csv");
+        Files.writeString(file, """
+                %d,NIC200000001,Ann Perera,ann@clinic.lk,0771234567,Dr. Silva,2030-01-07,09:00,false,
+                """.formatted(AppointmentStore.MAX_ID + 1), StandardCharsets.UTF_8);
+        try (AppointmentRepository repository = AppointmentRepository.openMapped(directory, TestData.ROSTER)) {
+            ImportReport report = new DataTransferService(repository, TestData.ROSTER).importCsv(file);
+            assertEquals(0, report.getImported());
+            assertEquals(1, report.getRejected());
+        }
+    }
+}
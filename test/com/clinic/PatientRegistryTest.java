@@ -0,0 +1,39 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientRegistryTest {
+    @Test
+    void internKeepsTheFirstRecordForEachNic() {
+        PatientRegistry registry = new PatientRegistry();
+        Patient first = TestData.patient(1);
+        Patient again = new Patient(first.getNic(), "Someone Else", "else@clinic.lk", "0770000000");
+
+        assertSame(first, registry.intern(first));
+        assertSame(first, registry.intern(again));
+        registry.linkAppointment(again, 7);
+        assertArrayEquals(new int[] {7}, registry.appointmentIds(first.getNic()));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void bookingsForOneNicShareThePatientWhateverObjectTheCallerPassed() {
+        AppointmentRepository repository = new AppointmentRepository();
+        Patient first = TestData.patient(1);
+        Patient copy = new Patient(first.getNic(), first.getName(), first.getEmail(), first.getPhone());
+        assertTrue(repository.save(TestData.appointment(first, 0)));
+        assertTrue(repository.save(TestData.appointment(copy, 1)));
+
+        List<Appointment> appointments = repository.findByNic(first.getNic());
+        assertEquals(2, appointments.size());
+        assertSame(first, repository.findPatient(first.getNic()));
+        appointments.forEach(appointment -> assertSame(first, appointment.getPatient()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientSearchIndexTest {
+    @Test
+    void editDistanceCountsTranspositionsAsOneEdit() {
+        assertEquals(0, PatientSearchIndex.editDistance("nimal", "nimal", 2));
+        assertEquals(1, PatientSearchIndex.editDistance("nimal", "nimla", 2));
+        assertEquals(1, PatientSearchIndex.editDistance("perera", "pereira", 2));
+        assertEquals(1, PatientSearchIndex.editDistance("silva", "silba", 2));
+        assertEquals(2, PatientSearchIndex.editDistance("fernando", "frenado", 2));
+    }
+
+    @Test
+    void editDistanceStopsOnceTheBoundIsExceeded() {
+        assertEquals(2, PatientSearchIndex.editDistance("wijeratne", "perera", 1));
+        assertEquals(1, PatientSearchIndex.editDistance("abc", "xyz", 0));
+    }
+
+    @Test
+    void searchRanksExactThenPrefixThenFuzzyMatches() {
+        PatientSearchIndex index = new PatientSearchIndex();
+        index.add(new Patient("199012345678", "Nimal Perera", "nimal@clinic.lk", "0771234567"));
+        index.add(new Patient("199112345678", "Nimali Silva", "nimali@clinic.lk", "0779876543"));
+        index.add(new Patient("199212345678", "Kamal Fernando", "kamal@clinic.lk", "0712223334"));
+
+        List<Patient> byPrefix = index.search("nima", 10);
+        assertEquals(2, byPrefix.size());
+        assertEquals("Nimal Perera", byPrefix.get(0).getName());
+
+        assertEquals("Nimal Perera", index.search("Nimal Perera", 10).get(0).getName());
+        assertEquals("Kamal Fernando", index.search("fernadno", 10).get(0).getName());
+        assertEquals("Nimali Silva", index.search("1991", 10).get(0).getName());
+        assertTrue(index.search("Unknown Visitor", 10).isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReminderServiceTest {
+    private final AppointmentRepository repository = new AppointmentRepository();
+    private final List<Integer> remindedIds = new ArrayList<>();
+    private final MutableClock clock = new MutableClock(TestData.MONDAY.atTime(8, 0).toInstant(ZoneOffset.UTC));
+    private boolean failing;
+    private final ReminderService reminders = new ReminderService(repository, appointments -> {
+        if (failing) {
+            throw new IOException("mail server down");
+        }
+        appointments.forEach(appointment -> remindedIds.add(appointment.getId()));
+    }, Duration.ofHours(24), clock);
+
+    @Test
+    void appointmentsBookedBehindAnEarlierSweepAreStillReminded() throws IOException {
+        Appointment noon = book("12:00");
+        assertEquals(1, reminders.sweep());
+        assertEquals(0, reminders.sweep());
+
+        Appointment ten = book("10:00");
+        assertEquals(1, reminders.sweep());
+        assertEquals(List.of(noon.getId(), ten.getId()), remindedIds);
+
+        assertTrue(repository.update(noon, noon.getDermatologist(), noon.getDate(), "11:00"));
+        assertEquals(1, reminders.sweep());
+        assertEquals(noon.getId(), remindedIds.get(2));
+    }
+
+    @Test
+    void failedBatchesAreRetriedAndPastSlotsAreNotReminded() throws IOException {
+        book("09:00");
+        failing = true;
+        assertThrows(IOException.class, reminders::sweep);
+        failing = false;
+        clock.instant = TestData.MONDAY.atTime(9, 30).toInstant(ZoneOffset.UTC);
+        book("10:00");
+        assertEquals(1, reminders.sweep());
+        assertEquals(0, reminders.sweep());
+    }
+
+    private Appointment book(String time) {
+        Appointment appointment = new Appointment(TestData.patient(remindedIds.size()), TestData.doctor(0), TestData.MONDAY.toString(), time);
+        repository.save(appointment);
+        return appointment;
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedClinicTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rootLevelDataMovesToTheFirstBranchWhenASecondBranchIsAdded() throws IOException {
+        Appointment appointment = TestData.appointment(TestData.patient(1), 0);
+        try (AppointmentRepository legacy = AppointmentRepository.open(directory, TestData.ROSTER)) {
+            assertTrue(legacy.save(appointment));
+        }
+
+        try (ShardedClinic clinic = ShardedClinic.open(directory, ClinicBranch.parse("Main,City"))) {
+            assertFalse(Files.exists(directory.resolve("appointments.wal")));
+            assertTrue(Files.exists(directory.resolve("main").resolve("appointments.wal")));
+            assertEquals("Main", clinic.findShardOwning(appointment.getId()).getBranch().name());
+            assertNull(clinic.findShardOwning(appointment.getId() + 1_000_000));
+
+            Appointment city = TestData.appointment(TestData.patient(2), 1);
+            assertTrue(clinic.getShard("City").getRepository().save(city));
+            assertEquals("City", clinic.findShardOwning(city.getId()).getBranch().name());
+        }
+
+        try (ShardedClinic clinic = ShardedClinic.open(directory, ClinicBranch.parse("Main"))) {
+            assertEquals(1, clinic.getShard("Main").getRepository().size());
+        }
+    }
+
+    @Test
+    void branchesThatWouldShareADirectoryAreRejectedBeforeAnythingIsOpened() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ShardedClinic.open(directory, ClinicBranch.parse("Main Branch,main-branch")));
+        assertFalse(Files.exists(directory.resolve("main-branch")));
+    }
+}
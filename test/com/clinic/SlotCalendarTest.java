@@ -0,0 +1,73 @@
+package com.clinic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotCalendarTest {
+    private final SlotCalendar calendar = new SlotCalendar();
+    private final Dermatologist silva = TestData.doctor(0);
+
+    @Test
+    void slotIsReservedOnceUntilReleased() {
+        LocalTime nine = LocalTime.of(9, 0);
+        assertTrue(calendar.reserve(silva, TestData.MONDAY, nine));
+        assertFalse(calendar.reserve(silva, TestData.MONDAY, nine));
+        assertFalse(calendar.isFree(silva, TestData.MONDAY, nine));
+        assertTrue(calendar.isFree(silva, TestData.MONDAY, nine.plusMinutes(15)));
+        assertTrue(calendar.reserve(TestData.doctor(1), TestData.MONDAY, nine));
+
+        calendar.release(silva, TestData.MONDAY, nine);
+        assertTrue(calendar.reserve(silva, TestData.MONDAY, nine));
+    }
+
+    @Test
+    void freeSlotsSkipReservationsWithinWorkingHours() {
+        List<LocalTime> all = calendar.freeSlots(silva, TestData.MONDAY);
+        assertEquals(SlotCalendar.workingSlots(silva, TestData.MONDAY), all.size());
+        assertEquals(silva.getStartTime(), all.get(0));
+
+        calendar.reserve(silva, TestData.MONDAY, silva.getStartTime());
+        List<LocalTime> remaining = calendar.freeSlots(silva, TestData.MONDAY);
+        assertEquals(all.size() - 1, remaining.size());
+        assertEquals(silva.getStartTime().plusMinutes(SlotCalendar.SLOT_MINUTES), remaining.get(0));
+    }
+
+    @Test
+    void concurrentReservationsOfNeighbouringSlotsEachWinOnce() throws InterruptedException {
+        // All 64 slots of one bitmap word are contended by every thread, exercising the CAS retry loop.
+        int threads = 8;
+        AtomicInteger wins = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int slot = 0; slot < 64; slot++) {
+                    if (calendar.reserve(silva, TestData.MONDAY, LocalTime.MIN.plusMinutes((long) slot * SlotCalendar.SLOT_MINUTES))) {
+                        wins.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            running.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        assertEquals(64, wins.get());
+    }
+}
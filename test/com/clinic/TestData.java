@@ -0,0 +1,31 @@
+package com.clinic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/** Patients, doctors and slots shared by the tests. Dates are far enough ahead to stay bookable. */
+final class TestData {
+    static final DermatologistRoster ROSTER = DermatologistRoster.defaultRoster();
+    static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private TestData() {}
+
+    static Patient patient(int index) {
+        return new Patient("NIC" + (100_000_000 + index), "Patient " + index, "patient" + index + "@clinic.lk", "0771234567");
+    }
+
+    static Dermatologist doctor(int index) {
+        return ROSTER.get(index);
+    }
+
+    /** The {@code index}-th distinct doctor, date and quarter-hour slot from {@link #MONDAY}. */
+    static Appointment appointment(Patient patient, int index) {
+        List<Dermatologist> dermatologists = ROSTER.getDermatologists();
+        int perDay = dermatologists.size() * SlotCalendar.SLOTS_PER_DAY;
+        Dermatologist dermatologist = dermatologists.get(index % dermatologists.size());
+        LocalDate date = MONDAY.plusDays(index / perDay);
+        LocalTime time = LocalTime.MIN.plusMinutes((long) SlotCalendar.SLOT_MINUTES * ((index / dermatologists.size()) % SlotCalendar.SLOTS_PER_DAY));
+        return new Appointment(patient, dermatologist, date.toString(), time.toString());
+    }
+}